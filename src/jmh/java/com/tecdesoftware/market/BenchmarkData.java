@@ -0,0 +1,116 @@
+package com.tecdesoftware.market;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.persistance.entity.Categoria;
+import com.tecdesoftware.market.persistance.entity.Compra;
+import com.tecdesoftware.market.persistance.entity.CompraProducto;
+import com.tecdesoftware.market.persistance.entity.CompraProductoPK;
+import com.tecdesoftware.market.persistance.entity.Producto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Datos generados para los benchmarks; la semilla fija hace que cada build mida lo mismo
+public final class BenchmarkData {
+
+    public static final int CATEGORIES = 50;
+    public static final int MAX_ITEMS = 50;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Producto> productos(int count) {
+        Random random = new Random(42);
+        List<Categoria> categorias = categorias();
+        List<Producto> productos = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Categoria categoria = categorias.get(random.nextInt(CATEGORIES));
+            Producto producto = new Producto();
+            producto.setIdProducto(i);
+            producto.setNombre("Producto " + i);
+            producto.setIdCategoria(categoria.getIdCategoria());
+            producto.setCategoria(categoria);
+            producto.setCodigoBarras(String.format("%013d", 7_500_000_000_000L + i));
+            producto.setPrecioVenta(Money.ofMinor(random.nextInt(100_000)));
+            producto.setCantidadStock(random.nextInt(1000));
+            producto.setEstado(random.nextInt(10) != 0);
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    // Compras con entre 1 y 50 productos cada una
+    public static List<Compra> compras(int count) {
+        Random random = new Random(42);
+        List<Compra> compras = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Compra compra = new Compra();
+            compra.setIdCompra(i);
+            compra.setIdCliente("CLI" + random.nextInt(10_000));
+            compra.setFecha(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i));
+            compra.setMedioPago(random.nextBoolean() ? "E" : "T");
+            compra.setComentario("");
+            compra.setEstado("P");
+
+            int items = 1 + random.nextInt(MAX_ITEMS);
+            List<CompraProducto> productos = new ArrayList<>(items);
+            for (int j = 0; j < items; j++) {
+                CompraProductoPK id = new CompraProductoPK();
+                id.setIdCompra(i);
+                id.setIdProducto(1 + random.nextInt(100_000));
+                CompraProducto item = new CompraProducto();
+                item.setId(id);
+                item.setCantidad(1 + random.nextInt(5));
+                item.setTotal(Money.ofMinor(random.nextInt(100_000)));
+                item.setEstado(true);
+                item.setCompra(compra);
+                productos.add(item);
+            }
+            compra.setProductos(productos);
+            compras.add(compra);
+        }
+        return compras;
+    }
+
+    public static List<Purchase> purchases(int count, String clientId, List<Integer> productIds) {
+        Random random = new Random(42);
+        List<Purchase> purchases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int items = 1 + random.nextInt(Math.min(MAX_ITEMS, productIds.size()));
+            List<PurchaseItem> purchaseItems = new ArrayList<>(items);
+            for (int j = 0; j < items; j++) {
+                PurchaseItem item = new PurchaseItem();
+                item.setProductId(productIds.get(j));
+                item.setQuantity(1);
+                item.setTotal(Money.ofMinor(1000));
+                item.setActive(true);
+                purchaseItems.add(item);
+            }
+
+            Purchase purchase = new Purchase();
+            purchase.setClientId(clientId);
+            purchase.setDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i));
+            purchase.setPaymentMethod("E");
+            purchase.setState("P");
+            purchase.setItems(purchaseItems);
+            purchases.add(purchase);
+        }
+        return purchases;
+    }
+
+    private static List<Categoria> categorias() {
+        List<Categoria> categorias = new ArrayList<>(CATEGORIES);
+        for (int i = 1; i <= CATEGORIES; i++) {
+            Categoria categoria = new Categoria();
+            categoria.setIdCategoria(i);
+            categoria.setDescripcion("Categoría " + i);
+            categoria.setEstado(true);
+            categorias.add(categoria);
+        }
+        return categorias;
+    }
+}
@@ -0,0 +1,94 @@
+package com.tecdesoftware.market.domain;
+
+import com.tecdesoftware.market.persistance.converter.MoneyConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Costo de sumar los totales de una compra grande y de pasar montos por el converter JPA,
+// comparado con la representación anterior (double en dominio, BigDecimal en entidades)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoneyBenchmark {
+
+    @Param({"50", "5000"})
+    public int items;
+
+    private final MoneyConverter converter = new MoneyConverter();
+    private Money[] money;
+    private double[] doubles;
+    private BigDecimal[] decimals;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        money = new Money[items];
+        doubles = new double[items];
+        decimals = new BigDecimal[items];
+        for (int i = 0; i < items; i++) {
+            long cents = random.nextInt(100_000);
+            money[i] = Money.ofMinor(cents);
+            doubles[i] = cents / 100.0;
+            decimals[i] = BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    @Benchmark
+    public double sumDouble() {
+        double total = 0;
+        for (double amount : doubles) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money sumMoney() {
+        long total = 0;
+        for (Money amount : money) {
+            total = Math.addExact(total, amount.getMinorUnits());
+        }
+        return Money.ofMinor(total);
+    }
+
+    // Lo que pagaba el mapper por cada producto: BigDecimal -> double
+    @Benchmark
+    public double mapBigDecimalToDouble() {
+        double last = 0;
+        for (BigDecimal amount : decimals) {
+            last = amount.doubleValue();
+        }
+        return last;
+    }
+
+    // Lo que se paga ahora al leer de JDBC; el mapper solo copia la referencia
+    @Benchmark
+    public Money convertFromColumn() {
+        Money last = null;
+        for (BigDecimal amount : decimals) {
+            last = converter.convertToEntityAttribute(amount);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public BigDecimal convertToColumn() {
+        BigDecimal last = null;
+        for (Money amount : money) {
+            last = converter.convertToDatabaseColumn(amount);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Búsqueda de una caja sobre un catálogo de un millón de productos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BarcodeIndexBenchmark {
+
+    @Param({"1000000"})
+    private int products;
+
+    private BarcodeIndex index;
+    private String[] barcodes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // El índice se llena con la misma carga que al arrancar (el plugin de JMH incluye las clases de test)
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        barcodes = new String[products];
+        Random random = new Random(42);
+        for (int i = 1; i <= products; i++) {
+            Product product = new Product();
+            product.setProductId(i);
+            product.setName("Producto " + i);
+            product.setCategoryId(1 + random.nextInt(50));
+            product.setBarcode(String.format("%013d", 7_500_000_000_000L + i));
+            product.setPrice(Money.ofMinor(random.nextInt(100_000)));
+            product.setStock(random.nextInt(1000));
+            product.setActive(true);
+            repository.save(product);
+            barcodes[i - 1] = product.getBarcode();
+        }
+        index = new BarcodeIndex();
+        index.load(repository);
+    }
+
+    @Benchmark
+    public Object hit() {
+        next = (next + 7919) % products;
+        return index.find(barcodes[next]);
+    }
+
+    @Benchmark
+    public Object miss() {
+        return index.find("0000000000000");
+    }
+
+    // Siete hilos escaneando mientras otro descuenta stock
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public Object mixedRead() {
+        next = (next + 7919) % products;
+        return index.find(barcodes[next]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite() {
+        index.adjustStock(1 + (next % products), -1);
+    }
+}
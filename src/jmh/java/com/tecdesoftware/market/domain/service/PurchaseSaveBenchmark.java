@@ -0,0 +1,76 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.BenchmarkData;
+import com.tecdesoftware.market.MarketAppApplication;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compara el guardado compra por compra contra la carga por lotes (H2 en memoria)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PurchaseSaveBenchmark {
+
+    private static final String CLIENT_ID = "CLI-BENCH";
+
+    @Param({"100", "1000"})
+    public int purchases;
+
+    private ConfigurableApplicationContext context;
+    private PurchaseService purchaseService;
+    private List<Purchase> data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MarketAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false");
+        purchaseService = context.getBean(PurchaseService.class);
+
+        Cliente cliente = new Cliente();
+        cliente.setId(CLIENT_ID);
+        context.getBean(ClienteCrudRepository.class).save(cliente);
+
+        ProductoCrudRepository productos = context.getBean(ProductoCrudRepository.class);
+        List<Integer> productIds = new ArrayList<>();
+        for (int i = 0; i < BenchmarkData.MAX_ITEMS; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setPrecioVenta(Money.ofMinor(1000));
+            producto.setCantidadStock(Integer.MAX_VALUE);
+            producto.setEstado(true);
+            productIds.add(productos.save(producto).getIdProducto());
+        }
+        data = BenchmarkData.purchases(purchases, CLIENT_ID, productIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleSave(Blackhole blackhole) {
+        for (Purchase purchase : data) {
+            blackhole.consume(purchaseService.save(purchase));
+        }
+    }
+
+    @Benchmark
+    public void batchSave(Blackhole blackhole) {
+        blackhole.consume(purchaseService.saveAll(data));
+    }
+}
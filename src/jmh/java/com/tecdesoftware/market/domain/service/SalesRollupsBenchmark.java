@@ -0,0 +1,83 @@
+package com.tecdesoftware.market.domain.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Consultas de los tableros sobre diez millones de ítems vendidos (un año, 20.000 productos, 50 categorías,
+// 4 medios de pago), en un solo hilo y repartidas en todos los procesadores
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SalesRollupsBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 365;
+    private static final int PRODUCTS = 20_000;
+
+    @Param({"10000000"})
+    private int lineItems;
+
+    // 0 = un hilo por procesador
+    @Param({"1", "0"})
+    private int parallelism;
+
+    private SalesRollups rollups;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rollups = new SalesRollups(parallelism, PRODUCTS * DAYS);
+        int[] methods = {
+                rollups.methodCode("efectivo"), rollups.methodCode("tarjeta"),
+                rollups.methodCode("transferencia"), rollups.methodCode("billetera")
+        };
+        int firstDay = (int) FIRST_DAY.toEpochDay();
+        Random random = new Random(42);
+        int added = 0;
+        while (added < lineItems) {
+            int day = firstDay + random.nextInt(DAYS);
+            int method = methods[random.nextInt(methods.length)];
+            int items = 1 + random.nextInt(Math.min(20, lineItems - added));
+            long units = 0;
+            long total = 0;
+            for (int i = 0; i < items; i++) {
+                int product = 1 + random.nextInt(PRODUCTS);
+                int quantity = 1 + random.nextInt(5);
+                long cents = quantity * (100L + product % 10_000);
+                rollups.addLine(day, product, product % 50, method, quantity, cents);
+                units += quantity;
+                total += cents;
+            }
+            rollups.addBasket(day, method, items, units, total);
+            added += items;
+        }
+        // Un trimestre
+        from = FIRST_DAY.plusDays(90);
+        to = FIRST_DAY.plusDays(180);
+    }
+
+    @Benchmark
+    public Object revenueByCategory() {
+        return rollups.salesBy(SalesRollups.BY_CATEGORY, from, to);
+    }
+
+    @Benchmark
+    public Object revenueByDay() {
+        return rollups.salesBy(SalesRollups.BY_DAY, from, to);
+    }
+
+    @Benchmark
+    public Object topProducts() {
+        return rollups.topProducts(from, to, 10, false);
+    }
+
+    @Benchmark
+    public Object baskets() {
+        return rollups.baskets(from, to);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tecdesoftware.market.persistance;
+
+import com.tecdesoftware.market.BenchmarkData;
+import com.tecdesoftware.market.MarketAppApplication;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.CompraCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import com.tecdesoftware.market.persistance.mapper.ProductMapper;
+import com.tecdesoftware.market.persistance.mapper.PurchaseMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Listados de productos y de compras de un cliente: entidades + MapStruct (como antes) contra las
+// proyecciones ProductoVista / CompraLineaVista (H2 en memoria). Para ver la memoria asignada por
+// operación: ./gradlew jmh -PjmhIncludes=ListingQuery -PjmhProfilers=gc
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListingQueryBenchmark {
+
+    private static final String CLIENT_ID = "CLI-LIST";
+
+    @Param({"10000"})
+    public int products;
+
+    @Param({"500"})
+    public int purchases;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private ProductoCrudRepository productoCrudRepository;
+    private CompraCrudRepository compraCrudRepository;
+    private ProductMapper productMapper;
+    private PurchaseMapper purchaseMapper;
+    private ProductRepository productRepository;
+    private PurchaseRepository purchaseRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MarketAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false");
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        productoCrudRepository = context.getBean(ProductoCrudRepository.class);
+        compraCrudRepository = context.getBean(CompraCrudRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        purchaseMapper = context.getBean(PurchaseMapper.class);
+        productRepository = context.getBean(ProductRepository.class);
+        purchaseRepository = context.getBean(PurchaseRepository.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> categorias = new ArrayList<>();
+        for (int i = 1; i <= BenchmarkData.CATEGORIES; i++) {
+            categorias.add(new Object[]{"Categoría " + i, true});
+        }
+        jdbc.batchUpdate("INSERT INTO categorias (descripcion, estado) VALUES (?, ?)", categorias);
+        List<Integer> categoryIds = jdbc.queryForList("SELECT id_categoria FROM categorias", Integer.class);
+
+        Random random = new Random(42);
+        List<Object[]> productos = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            productos.add(new Object[]{"Producto " + i, categoryIds.get(random.nextInt(categoryIds.size())),
+                    String.format("%013d", 7_500_000_000_000L + i), BigDecimal.valueOf(random.nextInt(100_000), 2),
+                    random.nextInt(1000), true});
+        }
+        jdbc.batchUpdate("INSERT INTO productos (nombre, id_categoria, codigo_barras, precio_venta, cantidad_stock, estado) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", productos);
+
+        Cliente cliente = new Cliente();
+        cliente.setId(CLIENT_ID);
+        context.getBean(ClienteCrudRepository.class).save(cliente);
+        List<Integer> productIds = jdbc.queryForList(
+                "SELECT id_producto FROM productos ORDER BY id_producto LIMIT " + BenchmarkData.MAX_ITEMS, Integer.class);
+        purchaseRepository.saveAll(BenchmarkData.purchases(purchases, CLIENT_ID, productIds));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> productsEntityMapper() {
+        return readOnly.execute(status -> productMapper.toProducts((List<Producto>) productoCrudRepository.findAll()));
+    }
+
+    @Benchmark
+    public List<Product> productsProjection() {
+        return productRepository.getAll();
+    }
+
+    @Benchmark
+    public List<Purchase> purchasesEntityMapper() {
+        return readOnly.execute(status -> purchaseMapper.toPurchases(
+                compraCrudRepository.findByIdCliente(CLIENT_ID).orElseThrow()));
+    }
+
+    @Benchmark
+    public List<Purchase> purchasesProjection() {
+        return purchaseRepository.getByClient(CLIENT_ID).orElseThrow();
+    }
+}
@@ -0,0 +1,40 @@
+package com.tecdesoftware.market.persistance.mapper;
+
+import com.tecdesoftware.market.BenchmarkData;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductMapperBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int products;
+
+    private AnnotationConfigApplicationContext context;
+    private ProductMapper mapper;
+    private List<Producto> productos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ProductMapperImpl.class, CategoryMapperImpl.class);
+        mapper = context.getBean(ProductMapper.class);
+        productos = BenchmarkData.productos(products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> toProducts() {
+        return mapper.toProducts(productos);
+    }
+}
@@ -0,0 +1,42 @@
+package com.tecdesoftware.market.persistance.mapper;
+
+import com.tecdesoftware.market.BenchmarkData;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.persistance.entity.Compra;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PurchaseMapperBenchmark {
+
+    // Cada compra tiene entre 1 y 50 productos
+    @Param({"1000", "10000", "100000"})
+    public int purchases;
+
+    private AnnotationConfigApplicationContext context;
+    private PurchaseMapper mapper;
+    private List<Compra> compras;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(PurchaseMapperImpl.class, PurchaseItemMapperImpl.class,
+                ProductMapperImpl.class, CategoryMapperImpl.class);
+        mapper = context.getBean(PurchaseMapper.class);
+        compras = BenchmarkData.compras(purchases);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Purchase> toPurchases() {
+        return mapper.toPurchases(compras);
+    }
+}
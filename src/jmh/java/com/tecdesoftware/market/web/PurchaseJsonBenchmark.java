@@ -0,0 +1,50 @@
+package com.tecdesoftware.market.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.tecdesoftware.market.BenchmarkData;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.persistance.mapper.CategoryMapperImpl;
+import com.tecdesoftware.market.persistance.mapper.ProductMapperImpl;
+import com.tecdesoftware.market.persistance.mapper.PurchaseItemMapperImpl;
+import com.tecdesoftware.market.persistance.mapper.PurchaseMapper;
+import com.tecdesoftware.market.persistance.mapper.PurchaseMapperImpl;
+import com.tecdesoftware.market.web.json.MoneyJsonComponent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización JSON de compras, tal como la hace Spring MVC en GET /purchases
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PurchaseJsonBenchmark {
+
+    @Param({"1000", "10000"})
+    public int purchases;
+
+    private ObjectMapper objectMapper;
+    private List<Purchase> data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Spring registra MoneyJsonComponent solo; acá se agrega a mano
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .addModule(new SimpleModule().addSerializer(Money.class, new MoneyJsonComponent.Serializer()))
+                .build();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                PurchaseMapperImpl.class, PurchaseItemMapperImpl.class, ProductMapperImpl.class, CategoryMapperImpl.class)) {
+            data = context.getBean(PurchaseMapper.class).toPurchases(BenchmarkData.compras(purchases));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(data);
+    }
+}
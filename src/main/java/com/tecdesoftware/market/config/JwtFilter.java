@@ -5,21 +5,30 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 //OncePerRequestFilter: garantiza que el filtro se ejecute una sola vez por solicitud HTTP.
 @Component // Marca esta clase como un filtro que Spring usará
 public class JwtFilter extends OncePerRequestFilter {
 
+    // Rol de los correos listados en market.security.admin-emails (hasRole agrega el prefijo ROLE_)
+    public static final String ADMIN_ROLE = "ADMIN";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Value("${market.security.admin-emails:}")
+    private Set<String> adminEmails;
+
     //Este método intercepta cada solicitud HTTP al backend.
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,15 +42,17 @@ public class JwtFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7); // Elimina 'Bearer ' y deja solo el token
 
-            // Si el token es válido, se extrae el correo y se configura el usuario autenticado
-            if (jwtUtil.validateToken(jwt)) {
-                String correo = jwtUtil.extractUsername(jwt);
+            // Se verifica el token una sola vez; si es válido se configura el usuario autenticado con su correo
+            jwtUtil.verify(jwt).ifPresent(claims -> {
+                String correo = claims.getSubject();
 
                 // Crea un token de autenticación y lo coloca en el contexto de Spring
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(correo, null, List.of());
+                        new UsernamePasswordAuthenticationToken(correo, null, adminEmails.contains(correo)
+                                ? List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE))
+                                : List.of());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            });
         }
 
         // Continúa con el flujo de filtros
@@ -1,11 +1,24 @@
 package com.tecdesoftware.market.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -13,39 +26,83 @@ public class JwtUtil {
     // Clave secreta usada para firmar digitalmente los tokens
     private final String SECRET_KEY = "eO0jhFz67uKp8Wx93jsLP!4oMr9qBfAQ";
 
+    // La clave HMAC y el parser se construyen una sola vez y se reutilizan (son thread-safe)
+    private final SecretKey key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parser().verifyWith(key).build();
+
+    // Tokens ya verificados (clave: SHA-256 del token); cada entrada vence junto con el token
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtUtil(@Value("${market.jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String hash, Claims claims, long currentTime) {
+                        return Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()) * 1_000_000;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     // Genera un token válido por 3 minutos con el correo del usuario como 'subject'
     public String generateToken(String correo) {
         return Jwts.builder()
                 .setSubject(correo)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + 3 * 60 * 1000)) // 3 min
-                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Verifica firma y expiración una sola vez y devuelve los claims; vacío si el token no es válido
+    public Optional<Claims> verify(String token) {
+        String hash = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(hash);
+        if (claims != null) {
+            return Optional.of(claims);
+        }
+
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // Solo se cachean tokens con expiración; los demás se verifican siempre
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(hash, claims);
+        }
+        return Optional.of(claims);
+    }
+
     // Extrae el 'subject' del token (correo electrónico)
     public String extractUsername(String token) {
-        //Analiza el token
-        return Jwts.parser()
-                //Le dice al .parser() “asegúrate que este token fue generado por mí”
-                .verifyWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
-                //Termina de construir el parser configurado. Ya está listo para usarse.
-                .build()
-                //Lee el token que le pasas y verifica su firma.
-                .parseSignedClaims(token)
-                // Extrae la parte del contenido (el “cuerpo”) del token. Aquí está la info como el correo, fechas, etc.
-                .getPayload()
-                //Obtiene el subject del token, que en este caso es el correo electrónico del usuario.
-                .getSubject();
+        //Analiza el token, verifica su firma y obtiene el subject (correo electrónico del usuario)
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     // Valida que el token esté bien formado y no haya expirado
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private static String hash(String token) {
         try {
-            extractUsername(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 siempre está disponible en la JVM
+            throw new IllegalStateException(e);
         }
     }
 }
@@ -0,0 +1,87 @@
+package com.tecdesoftware.market.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Réplicas de lectura: solo se activa si market.datasource.replicas.urls tiene al menos una URL
+// (la propiedad presente pero vacía, o solo con comas, deja el datasource de Spring Boot).
+// Las transacciones @Transactional(readOnly = true) toman la conexión de una réplica y el resto
+// (escrituras, Flyway, lecturas dentro de una transacción de escritura) del primario.
+@Configuration
+@Conditional(ReplicaDataSourceConfig.HasReplicaUrls.class)
+public class ReplicaDataSourceConfig {
+
+    static final String URLS_PROPERTY = "market.datasource.replicas.urls";
+
+    // Pool del primario, configurado igual que el que crearía Spring Boot (spring.datasource.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            HikariDataSource primaryDataSource, DataSourceProperties properties,
+            @Value("${" + URLS_PROPERTY + "}") String[] urls,
+            @Value("${market.datasource.replicas.username:}") String username,
+            @Value("${market.datasource.replicas.password:}") String password,
+            @Value("${market.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${market.datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${market.datasource.replicas.retry-after-ms:10000}") long retryAfterMs) {
+        List<DataSource> replicas = new ArrayList<>(urls.length);
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            // Sin usuario propio se usan las credenciales del primario
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(username.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replica.setReadOnly(true);
+            // Una réplica caída al arrancar no impide levantar la aplicación
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        int validationTimeoutSeconds = (int) Math.max(1, connectionTimeoutMs / 1000);
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, retryAfterMs, validationTimeoutSeconds);
+    }
+
+    // La conexión real se pide recién en la primera consulta, cuando ya se sabe si la
+    // transacción es de solo lectura
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    static class HasReplicaUrls implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            String urls = context.getEnvironment().getProperty(URLS_PROPERTY, "");
+            return Arrays.stream(urls.split(",")).anyMatch(url -> !url.isBlank());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tecdesoftware.market.config;
+
+import java.util.function.Supplier;
+
+// Permite forzar que las lecturas de una transacción readOnly vayan al primario (por ejemplo,
+// para que un cliente vea su propia compra aunque las réplicas vayan atrasadas).
+// Debe usarse antes de la primera consulta: la conexión se elige recién al ejecutarla.
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            } else {
+                PRIMARY.set(previous);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY.get() != null;
+    }
+}
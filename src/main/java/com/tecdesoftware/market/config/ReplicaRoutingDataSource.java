@@ -0,0 +1,119 @@
+package com.tecdesoftware.market.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+// Conexiones de solo lectura repartidas en round-robin entre las réplicas. Una réplica que falla
+// al dar una conexión queda excluida por retryAfterMs y el chequeo periódico la vuelve a incluir
+// cuando responde. Sin réplicas disponibles (o con ReplicaRouting.onPrimary) se usa el primario.
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long retryAfterMs;
+    private final int validationTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryAfterMs,
+                                    int validationTimeoutSeconds) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(i -> new Replica(replicas.get(i), i + 1))
+                .toList();
+        this.retryAfterMs = retryAfterMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaRouting.isPrimaryForced() && !replicas.isEmpty()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.isAvailable()) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    markDown(replica, e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Las réplicas usan las credenciales de su pool");
+    }
+
+    public int availableReplicas() {
+        return (int) replicas.stream().filter(Replica::isAvailable).count();
+    }
+
+    // Chequeo periódico: excluye las réplicas que no responden y reincorpora las que se recuperaron
+    @Scheduled(fixedDelayString = "${market.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    if (!replica.isAvailable()) {
+                        log.info("Réplica {} disponible otra vez", replica.index);
+                    }
+                    replica.downUntil = 0;
+                } else {
+                    markDown(replica, null);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.isAvailable()) {
+            log.warn("Réplica {} excluida por {} ms: {}", replica.index, retryAfterMs,
+                    cause != null ? cause.getMessage() : "conexión inválida");
+        }
+        replica.downUntil = System.currentTimeMillis() + retryAfterMs;
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final int index;
+        private volatile long downUntil;
+
+        private Replica(DataSource dataSource, int index) {
+            this.dataSource = dataSource;
+            this.index = index;
+        }
+
+        private boolean isAvailable() {
+            return downUntil <= System.currentTimeMillis();
+        }
+    }
+}
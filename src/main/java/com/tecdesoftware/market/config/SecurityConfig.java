@@ -1,8 +1,11 @@
 package com.tecdesoftware.market.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -24,6 +27,10 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    // Puerto aparte para Actuator (management.server.port); -1 si comparte el puerto de la API
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     // Bean para encriptar contraseñas con BCrypt
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -37,11 +44,19 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // CORS habilitado
                 .csrf(csrf -> csrf.disable()) // Se desactiva CSRF para uso como API REST
                 .authorizeHttpRequests(auth -> auth
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Respuestas en streaming ya autorizadas
                         .requestMatchers("/auth/**").permitAll() // Auth endpoints públicos (/** en lugar de /*)
                         .requestMatchers("/swagger-ui/**").permitAll() // Swagger endpoints
                         .requestMatchers("/v3/**").permitAll() // OpenAPI docs
                         .requestMatchers("/api-docs/**").permitAll() // API docs
                         .requestMatchers("/h2-console/**").permitAll() // H2 console
+                        .requestMatchers("/actuator/health").permitAll() // Health check
+                        // Métricas (pool de conexiones, latencias por endpoint): sin token solo por el puerto de
+                        // administración, que debe quedar en una red interna; por el puerto público, solo admins
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
+                        .requestMatchers("/actuator/**").hasRole(JwtFilter.ADMIN_ROLE)
+                        .requestMatchers(HttpMethod.POST, "/purchases/client-summaries/rebuild").hasRole(JwtFilter.ADMIN_ROLE)
+                        .requestMatchers("/analytics/**").hasRole(JwtFilter.ADMIN_ROLE) // Ventas de toda la tienda
                         .anyRequest().authenticated() // Todo lo demás requiere JWT válido
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // No hay sesiones
@@ -0,0 +1,61 @@
+package com.tecdesoftware.market.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ClientSummary {
+    private String clientId;
+    private Money totalSpent;
+    private int purchaseCount;
+    private LocalDateTime lastPurchaseDate;
+    private List<Purchase> recentPurchases;
+    private List<TopProduct> topProducts;
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public Money getTotalSpent() {
+        return totalSpent;
+    }
+
+    public void setTotalSpent(Money totalSpent) {
+        this.totalSpent = totalSpent;
+    }
+
+    public int getPurchaseCount() {
+        return purchaseCount;
+    }
+
+    public void setPurchaseCount(int purchaseCount) {
+        this.purchaseCount = purchaseCount;
+    }
+
+    public LocalDateTime getLastPurchaseDate() {
+        return lastPurchaseDate;
+    }
+
+    public void setLastPurchaseDate(LocalDateTime lastPurchaseDate) {
+        this.lastPurchaseDate = lastPurchaseDate;
+    }
+
+    public List<Purchase> getRecentPurchases() {
+        return recentPurchases;
+    }
+
+    public void setRecentPurchases(List<Purchase> recentPurchases) {
+        this.recentPurchases = recentPurchases;
+    }
+
+    public List<TopProduct> getTopProducts() {
+        return topProducts;
+    }
+
+    public void setTopProducts(List<TopProduct> topProducts) {
+        this.topProducts = topProducts;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tecdesoftware.market.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Monto en punto fijo: un long con la cantidad de centavos. Sumar y multiplicar son operaciones
+// sobre long (sin BigDecimal ni errores de redondeo de double) y desborda con excepción.
+public final class Money implements Comparable<Money>, Serializable {
+
+    // Cantidad de decimales de la moneda (igual a la escala de las columnas NUMERIC(16, 2))
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long UNIT = 100;
+    // Con hasta 16 dígitos el valor entra en un long aun después de completar los dos decimales
+    // (10^18 < Long.MAX_VALUE); más largos se leen con BigDecimal, que falla si desborda
+    private static final int MAX_FAST_DIGITS = 16;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Redondea al centavo (HALF_UP) si el valor trae más decimales
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    // Lee "25", "25.5" o "-25.50" sin pasar por BigDecimal; otros formatos (exponentes,
+    // más de dos decimales) se resuelven con BigDecimal
+    public static Money parse(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || decimals == SCALE || digits == MAX_FAST_DIGITS) {
+                return of(new BigDecimal(text));
+            }
+            units = units * 10 + (c - '0');
+            digits++;
+            if (decimals >= 0) {
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Monto inválido: " + text);
+        }
+        for (int scale = Math.max(decimals, 0); scale < SCALE; scale++) {
+            units *= 10;
+        }
+        return ofMinor(negative ? -units : units);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    // Siempre con dos decimales: "25.50", "-0.05"
+    @Override
+    public String toString() {
+        long units = Math.abs(minorUnits);
+        long cents = units % UNIT;
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(units / UNIT).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
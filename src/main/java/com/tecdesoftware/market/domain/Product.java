@@ -26,11 +26,19 @@ public class Product {
         this.categoryId = categoryId;
     }
 
-    public double getPrice() {
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -61,7 +69,8 @@ public class Product {
     private int productId;
     private String name;
     private int categoryId;
-    private double price;
+    private String barcode;
+    private Money price;
     private int stock;
     private boolean active;
     private Category category;
@@ -1,5 +1,7 @@
 package com.tecdesoftware.market.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,6 +12,10 @@ public class Purchase {
     private String paymentMethod;
     private String comment;
     private String state;
+    private String idempotencyKey;
+    // Huella del envío con Idempotency-Key; uso interno, no viaja en la API
+    @JsonIgnore
+    private String requestHash;
     private List<PurchaseItem> items;
 
     public int getPurchaseId() {
@@ -62,6 +68,22 @@ public class Purchase {
         this.state = state;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
     // CORRECCIÓN: Getter corregido - era getItem() debería ser getItems() para ser consistente
     public List<PurchaseItem> getItems() {
         return items;
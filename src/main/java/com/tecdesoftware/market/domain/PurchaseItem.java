@@ -3,7 +3,7 @@ package com.tecdesoftware.market.domain;
 public class PurchaseItem {
     private int productId;
     private int quantity;
-    private double total;
+    private Money total;
     private boolean active;
 
     public int getProductId() {
@@ -22,11 +22,11 @@ public class PurchaseItem {
         this.quantity = quantity;
     }
 
-    public double getTotal() {
+    public Money getTotal() {
         return total;
     }
 
-    public void setTotal(double total) {
+    public void setTotal(Money total) {
         this.total = total;
     }
 
@@ -0,0 +1,21 @@
+package com.tecdesoftware.market.domain.dto;
+
+public class AuthTokens {
+    public AuthTokens(String token, String refreshToken) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    // JWT de acceso (vida corta)
+    private final String token;
+    // Token opaco para pedir un nuevo JWT sin volver a enviar la contraseña
+    private final String refreshToken;
+}
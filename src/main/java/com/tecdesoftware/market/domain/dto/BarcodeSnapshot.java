@@ -0,0 +1,34 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Money;
+
+// Lo que necesita una caja al escanear: el producto, su precio y el stock disponible
+public class BarcodeSnapshot {
+    public BarcodeSnapshot(int productId, String barcode, Money price, int stock) {
+        this.productId = productId;
+        this.barcode = barcode;
+        this.price = price;
+        this.stock = stock;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public Money getPrice() {
+        return price;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    private final int productId;
+    private final String barcode;
+    private final Money price;
+    private final int stock;
+}
@@ -0,0 +1,28 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Money;
+
+// Compras con una misma cantidad de ítems distintos (la última agrupa las de ese tamaño o más)
+public class BasketSize {
+    public BasketSize(int items, long purchases, Money revenue) {
+        this.items = items;
+        this.purchases = purchases;
+        this.revenue = revenue;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    private final int items;
+    private final long purchases;
+    private final Money revenue;
+}
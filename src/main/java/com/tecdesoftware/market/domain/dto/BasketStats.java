@@ -0,0 +1,43 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Money;
+
+import java.util.List;
+
+// Tamaño de las compras de un período: promedios y cuántas compras hubo de cada cantidad de ítems
+public class BasketStats {
+    public BasketStats(long purchases, double averageItems, double averageUnits, Money averageTotal,
+                       List<BasketSize> sizes) {
+        this.purchases = purchases;
+        this.averageItems = averageItems;
+        this.averageUnits = averageUnits;
+        this.averageTotal = averageTotal;
+        this.sizes = sizes;
+    }
+
+    public long getPurchases() {
+        return purchases;
+    }
+
+    public double getAverageItems() {
+        return averageItems;
+    }
+
+    public double getAverageUnits() {
+        return averageUnits;
+    }
+
+    public Money getAverageTotal() {
+        return averageTotal;
+    }
+
+    public List<BasketSize> getSizes() {
+        return sizes;
+    }
+
+    private final long purchases;
+    private final double averageItems;
+    private final double averageUnits;
+    private final Money averageTotal;
+    private final List<BasketSize> sizes;
+}
@@ -0,0 +1,20 @@
+package com.tecdesoftware.market.domain.dto;
+
+// Versión de una vista del catálogo: ETag fuerte y momento del último cambio (epoch millis)
+public class CatalogVersion {
+    public CatalogVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private final String etag;
+    private final long lastModified;
+}
@@ -0,0 +1,27 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Product;
+
+import java.util.List;
+
+public class ProductPage {
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Product> items) {
+        this.items = items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    private List<Product> items;
+    // Id del último producto de la página; null cuando ya no hay más resultados
+    private Integer nextCursor;
+}
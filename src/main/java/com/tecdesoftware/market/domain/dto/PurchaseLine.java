@@ -0,0 +1,75 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Money;
+
+import java.time.LocalDateTime;
+
+// Una fila de la exportación de compras: los datos de la compra y uno de sus ítems.
+// Una compra sin ítems sale en una sola fila con los campos del ítem en null.
+public class PurchaseLine {
+
+    public PurchaseLine(int purchaseId, String clientId, LocalDateTime date, String paymentMethod, String comment,
+                        String state, Integer productId, Integer quantity, Money total, Boolean itemActive) {
+        this.purchaseId = purchaseId;
+        this.clientId = clientId;
+        this.date = date;
+        this.paymentMethod = paymentMethod;
+        this.comment = comment;
+        this.state = state;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.total = total;
+        this.itemActive = itemActive;
+    }
+
+    public int getPurchaseId() {
+        return purchaseId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public Boolean getItemActive() {
+        return itemActive;
+    }
+
+    private final int purchaseId;
+    private final String clientId;
+    private final LocalDateTime date;
+    private final String paymentMethod;
+    private final String comment;
+    private final String state;
+    private final Integer productId;
+    private final Integer quantity;
+    private final Money total;
+    private final Boolean itemActive;
+}
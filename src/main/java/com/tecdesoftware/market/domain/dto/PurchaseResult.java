@@ -0,0 +1,61 @@
+package com.tecdesoftware.market.domain.dto;
+
+// Resultado de cada compra enviada en un lote
+public class PurchaseResult {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    public static PurchaseResult created(int index, int purchaseId) {
+        PurchaseResult result = new PurchaseResult();
+        result.setIndex(index);
+        result.setPurchaseId(purchaseId);
+        result.setStatus(CREATED);
+        return result;
+    }
+
+    public static PurchaseResult rejected(int index, String error) {
+        PurchaseResult result = new PurchaseResult();
+        result.setIndex(index);
+        result.setStatus(REJECTED);
+        result.setError(error);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Integer getPurchaseId() {
+        return purchaseId;
+    }
+
+    public void setPurchaseId(Integer purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // Posición de la compra dentro del lote recibido
+    private int index;
+    private Integer purchaseId;
+    private String status;
+    private String error;
+}
@@ -0,0 +1,49 @@
+package com.tecdesoftware.market.domain.dto;
+
+// Estado de una compra aceptada en modo asíncrono: PENDING hasta que se guarda en la base,
+// después CREATED (con el id de la compra) o REJECTED (con el motivo)
+public class PurchaseTicket {
+    public static final String PENDING = "PENDING";
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    public PurchaseTicket(String ticket, String status, Integer purchaseId, String error) {
+        this.ticket = ticket;
+        this.status = status;
+        this.purchaseId = purchaseId;
+        this.error = error;
+    }
+
+    public static PurchaseTicket pending(String ticket) {
+        return new PurchaseTicket(ticket, PENDING, null, null);
+    }
+
+    public static PurchaseTicket created(String ticket, int purchaseId) {
+        return new PurchaseTicket(ticket, CREATED, purchaseId, null);
+    }
+
+    public static PurchaseTicket rejected(String ticket, String error) {
+        return new PurchaseTicket(ticket, REJECTED, null, error);
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Integer getPurchaseId() {
+        return purchaseId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    private final String ticket;
+    private final String status;
+    private final Integer purchaseId;
+    private final String error;
+}
@@ -0,0 +1,13 @@
+package com.tecdesoftware.market.domain.dto;
+
+public class RefreshRequest {
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    private String refreshToken;
+}
@@ -0,0 +1,35 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Money;
+
+// Ventas de un grupo (categoría, día, medio de pago o producto): unidades, monto e ítems vendidos
+public class SalesGroup {
+    public SalesGroup(String key, long units, Money revenue, long lines) {
+        this.key = key;
+        this.units = units;
+        this.revenue = revenue;
+        this.lines = lines;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    private final String key;
+    private final long units;
+    private final Money revenue;
+    // Cantidad de ítems de compra (líneas) que sumaron al grupo
+    private final long lines;
+}
@@ -0,0 +1,22 @@
+package com.tecdesoftware.market.domain.dto;
+
+import com.tecdesoftware.market.domain.Purchase;
+
+// Compra registrada y si se devolvió el resultado de un envío anterior con la misma clave
+public class SavedPurchase {
+    public SavedPurchase(Purchase purchase, boolean replayed) {
+        this.purchase = purchase;
+        this.replayed = replayed;
+    }
+
+    public Purchase getPurchase() {
+        return purchase;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    private final Purchase purchase;
+    private final boolean replayed;
+}
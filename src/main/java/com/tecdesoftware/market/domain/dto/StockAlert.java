@@ -0,0 +1,38 @@
+package com.tecdesoftware.market.domain.dto;
+
+// Aviso de que un producto cruzó el umbral de stock bajo (scarce = true) o se repuso (scarce = false)
+public class StockAlert {
+    public StockAlert(int productId, String name, int stock, int threshold, boolean scarce) {
+        this.productId = productId;
+        this.name = name;
+        this.stock = stock;
+        this.threshold = threshold;
+        this.scarce = scarce;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public boolean isScarce() {
+        return scarce;
+    }
+
+    private final int productId;
+    private final String name;
+    private final int stock;
+    private final int threshold;
+    private final boolean scarce;
+}
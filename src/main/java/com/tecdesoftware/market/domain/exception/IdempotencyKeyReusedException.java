@@ -0,0 +1,9 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando se reutiliza una Idempotency-Key con una compra distinta a la del primer envío
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("La Idempotency-Key " + idempotencyKey + " ya se usó con otra compra");
+    }
+}
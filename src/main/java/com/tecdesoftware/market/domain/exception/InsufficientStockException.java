@@ -0,0 +1,16 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando una compra pide más unidades de las que hay en stock
+public class InsufficientStockException extends RuntimeException {
+
+    private final int productId;
+
+    public InsufficientStockException(int productId, int quantity) {
+        super("Stock insuficiente para el producto " + productId + " (cantidad solicitada: " + quantity + ")");
+        this.productId = productId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+}
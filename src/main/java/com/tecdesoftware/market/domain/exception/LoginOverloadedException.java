@@ -0,0 +1,9 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando el pool de verificación de contraseñas está lleno y el login se rechaza de inmediato
+public class LoginOverloadedException extends RuntimeException {
+
+    public LoginOverloadedException() {
+        super("Servicio de autenticación saturado, intente más tarde");
+    }
+}
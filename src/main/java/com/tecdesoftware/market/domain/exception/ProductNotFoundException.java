@@ -0,0 +1,17 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando una compra incluye un producto que no existe. Es un IllegalArgumentException para que
+// la carga por lotes y el modo asíncrono la rechacen como cualquier otro dato inválido.
+public class ProductNotFoundException extends IllegalArgumentException {
+
+    private final int productId;
+
+    public ProductNotFoundException(int productId) {
+        super("No existe el producto " + productId);
+        this.productId = productId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando llega una compra repetida (misma Idempotency-Key) y la original sigue en proceso
+public class PurchaseInProgressException extends RuntimeException {
+
+    public PurchaseInProgressException(String idempotencyKey) {
+        super("La compra con Idempotency-Key " + idempotencyKey + " todavía se está procesando");
+    }
+}
@@ -0,0 +1,9 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando en modo asíncrono hay demasiadas compras esperando ser guardadas en la base
+public class PurchaseQueueFullException extends RuntimeException {
+
+    public PurchaseQueueFullException() {
+        super("Demasiadas compras pendientes de registrar, intente más tarde");
+    }
+}
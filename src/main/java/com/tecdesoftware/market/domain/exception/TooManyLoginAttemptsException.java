@@ -0,0 +1,16 @@
+package com.tecdesoftware.market.domain.exception;
+
+// Se lanza cuando un correo o una IP superan el límite de intentos de login por ventana
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(long retryAfterSeconds) {
+        super("Demasiados intentos de inicio de sesión, intente más tarde");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,14 @@
+package com.tecdesoftware.market.domain.repository;
+
+import com.tecdesoftware.market.domain.ClientSummary;
+import com.tecdesoftware.market.domain.Purchase;
+
+import java.util.Optional;
+
+public interface ClientSummaryRepository {
+    Optional<ClientSummary> getSummary(String clientId, int recentPurchases, int topProducts);
+    void addPurchase(Purchase purchase);
+    // Reconstruye los resúmenes de los siguientes clientes (en orden de id) después de afterClientId,
+    // en su propia transacción; devuelve el último cliente procesado, o vacío si no quedaban
+    Optional<String> rebuild(String afterClientId, int clients);
+}
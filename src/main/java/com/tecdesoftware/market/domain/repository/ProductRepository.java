@@ -1,13 +1,22 @@
 package com.tecdesoftware.market.domain.repository;
 import com.tecdesoftware.market.domain.Product;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductRepository {
     List<Product> getAll();
+    List<Product> getPage(int afterId, int size);
+    void streamAll(Consumer<Product> consumer);
     Optional<List<Product>> getByCategory(int categoryId);
     Optional<List<Product>> getScarceProducts(int quantity);
     Optional<Product> getProduct(int productId);
+    Optional<Product> getByBarcode(String barcode);
     Product save(Product product);
+    boolean decreaseStock(int productId, int quantity);
+    // Bloquea las filas de los productos (en orden de id) hasta el fin de la transacción y devuelve su stock
+    Map<Integer, Integer> lockStock(Collection<Integer> productIds);
     void delete(int ProductId);
 }
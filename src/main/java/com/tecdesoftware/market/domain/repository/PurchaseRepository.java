@@ -1,12 +1,19 @@
 package com.tecdesoftware.market.domain.repository;
 
 import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PurchaseRepository {
     List<Purchase> getAll();
     Optional<List<Purchase>> getByClient(String clientId);
+    Optional<Purchase> getByIdempotencyKey(String clientId, String idempotencyKey);
     Purchase save(Purchase purchase);
+    List<Purchase> saveAll(List<Purchase> purchases);
+    // Compras con fecha en [from, to) e ítems, ordenadas por fecha y compra, leídas de a una fila
+    void streamLines(LocalDateTime from, LocalDateTime to, Consumer<PurchaseLine> consumer);
 }
@@ -0,0 +1,56 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.dto.BasketStats;
+import com.tecdesoftware.market.domain.dto.SalesGroup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+// Consultas de los tableros de ventas. Responden con los agregados en memoria de SalesRollups;
+// mientras se cargan desde el historial devuelven Optional.empty().
+@Service
+public class AnalyticsService {
+
+    // Rango por defecto cuando no se indican fechas
+    public static final int DEFAULT_RANGE_DAYS = 30;
+    public static final int MAX_TOP_PRODUCTS = 1000;
+
+    @Autowired
+    private SalesRollups salesRollups;
+
+    public Optional<List<SalesGroup>> getSalesBy(String dimension, LocalDate from, LocalDate to) {
+        if (!salesRollups.isReady()) {
+            return Optional.empty();
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        return Optional.of(salesRollups.salesBy(dimension, start(from, end), end));
+    }
+
+    public Optional<List<SalesGroup>> getTopProducts(LocalDate from, LocalDate to, int limit, boolean byUnits) {
+        if (!salesRollups.isReady()) {
+            return Optional.empty();
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        return Optional.of(salesRollups.topProducts(start(from, end), end,
+                Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS)), byUnits));
+    }
+
+    public Optional<BasketStats> getBasketStats(LocalDate from, LocalDate to) {
+        if (!salesRollups.isReady()) {
+            return Optional.empty();
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        return Optional.of(salesRollups.baskets(start(from, end), end));
+    }
+
+    private static LocalDate start(LocalDate from, LocalDate end) {
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("La fecha 'from' debe ser anterior o igual a 'to'");
+        }
+        return start;
+    }
+}
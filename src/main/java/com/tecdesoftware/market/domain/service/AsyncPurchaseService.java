@@ -0,0 +1,336 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tecdesoftware.market.config.ReplicaRouting;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.PurchaseResult;
+import com.tecdesoftware.market.domain.dto.PurchaseTicket;
+import com.tecdesoftware.market.domain.exception.InsufficientStockException;
+import com.tecdesoftware.market.domain.exception.ProductNotFoundException;
+import com.tecdesoftware.market.domain.exception.PurchaseQueueFullException;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Modo asíncrono de POST /purchases (market.purchases.async.enabled=true). La compra se valida, se
+// escribe en el log local (PurchaseLog) y se responde 202 en cuanto está en disco, sin esperar a la
+// base. Un hilo la guarda después por lotes con PurchaseService.saveAll (que reserva el stock) y el
+// cliente consulta el resultado con el ticket. Al arrancar se reprocesa lo que quedó en el log.
+@Service
+@ConditionalOnProperty("market.purchases.async.enabled")
+public class AsyncPurchaseService {
+
+    // Prefijo de la clave de idempotencia con la que se guarda cada compra asíncrona: si el proceso
+    // se corta después del commit pero antes del checkpoint, la compra no se guarda dos veces
+    public static final String KEY_PREFIX = "async:";
+    // Un segmento se mapea en memoria entero: un MappedByteBuffer no pasa de Integer.MAX_VALUE bytes
+    static final int MAX_SEGMENT_SIZE_MB = 2047;
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPurchaseService.class);
+
+    private final PurchaseLog purchaseLog;
+    private final ObjectMapper objectMapper;
+    // El orden de la cola es el de las secuencias del log, así el checkpoint avanza sin huecos
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private final Cache<String, PurchaseTicket> tickets;
+    private final int maxPending;
+    private final int batchSize;
+    private final long retryDelayMs;
+    private volatile boolean running;
+    private Thread drainer;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    public AsyncPurchaseService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${market.purchases.async.log-dir:./data/purchase-log}") String logDir,
+                                @Value("${market.purchases.async.segment-size-mb:64}") int segmentSizeMb,
+                                @Value("${market.purchases.async.max-pending:50000}") int maxPending,
+                                @Value("${market.purchases.async.batch-size:500}") int batchSize,
+                                @Value("${market.purchases.async.retry-delay-ms:1000}") long retryDelayMs,
+                                @Value("${market.purchases.async.ticket-ttl-hours:24}") long ticketTtlHours,
+                                @Value("${market.purchases.async.max-tickets:100000}") long maxTickets) throws IOException {
+        this.objectMapper = objectMapper;
+        this.maxPending = maxPending;
+        this.batchSize = Math.max(1, Math.min(batchSize, PurchaseService.MAX_BATCH_SIZE));
+        this.retryDelayMs = retryDelayMs;
+        if (segmentSizeMb < 1 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException("market.purchases.async.segment-size-mb debe estar entre 1 y "
+                    + MAX_SEGMENT_SIZE_MB);
+        }
+        // Acotada también por tamaño: un ticket desalojado se sigue encontrando en la base con el cliente
+        this.tickets = Caffeine.newBuilder()
+                .maximumSize(maxTickets)
+                .expireAfterWrite(Duration.ofHours(ticketTtlHours))
+                .build();
+        this.purchaseLog = new PurchaseLog(Path.of(logDir), Math.toIntExact(segmentSizeMb * 1024L * 1024L));
+
+        // Compras aceptadas antes de un corte que todavía no estaban confirmadas en la base
+        for (PurchaseLog.Entry entry : purchaseLog.recovered()) {
+            Purchase purchase = objectMapper.readValue(entry.payload(), Purchase.class);
+            String ticket = purchase.getIdempotencyKey().substring(KEY_PREFIX.length());
+            tickets.put(ticket, PurchaseTicket.pending(ticket));
+            queue.add(new Pending(entry.seq(), ticket, purchase, true));
+        }
+        if (!queue.isEmpty()) {
+            log.info("{} compras asíncronas recuperadas del log", queue.size());
+        }
+
+        Gauge.builder("purchases.async.pending", queue, BlockingQueue::size)
+                .description("Compras aceptadas que todavía no se guardaron en la base")
+                .register(meterRegistry);
+    }
+
+    public PurchaseTicket accept(Purchase purchase) {
+        validate(purchase);
+        if (queue.size() >= maxPending) {
+            throw new PurchaseQueueFullException();
+        }
+
+        String ticket = UUID.randomUUID().toString();
+        purchase.setPurchaseId(0);
+        purchase.setIdempotencyKey(KEY_PREFIX + ticket);
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(purchase);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        PurchaseTicket pending = PurchaseTicket.pending(ticket);
+        tickets.put(ticket, pending);
+        long seq;
+        enqueueLock.lock();
+        try {
+            seq = purchaseLog.append(payload);
+            queue.add(new Pending(seq, ticket, purchase, false));
+        } finally {
+            enqueueLock.unlock();
+        }
+        // Se responde recién cuando el registro está en disco (fsync compartido con los demás hilos)
+        purchaseLog.awaitDurable(seq);
+        return pending;
+    }
+
+    // Sin el cliente solo se conocen los tickets recientes de esta instancia; con el cliente, una compra
+    // ya guardada se encuentra en la base aunque la haya aceptado otra instancia, antes de reiniciar o
+    // aunque su ticket ya haya salido de la cache
+    public Optional<PurchaseTicket> getTicket(String ticket, String clientId) {
+        PurchaseTicket known = tickets.getIfPresent(ticket);
+        if (known != null || clientId == null) {
+            return Optional.ofNullable(known);
+        }
+        return ReplicaRouting.onPrimary(() -> purchaseRepository.getByIdempotencyKey(clientId, KEY_PREFIX + ticket))
+                .map(purchase -> PurchaseTicket.created(ticket, purchase.getPurchaseId()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDrainer() {
+        running = true;
+        drainer = new Thread(this::drainLoop, "purchase-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        if (drainer != null) {
+            // Lo que no llegue a guardarse queda en el log y se reprocesa al arrancar
+            drainer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        purchaseLog.close();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // Si el intento anterior falló se reintenta el mismo lote
+                if (batch.isEmpty()) {
+                    Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+
+                long lastSeq = batch.get(batch.size() - 1).seq();
+                // Nada llega a la base antes de estar en el log
+                purchaseLog.awaitDurable(lastSeq);
+                if (!save(batch)) {
+                    return;
+                }
+                batch.clear();
+                purchaseLog.checkpoint(lastSeq);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Error en el guardado de compras asíncronas", e);
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // true si todo el lote quedó resuelto; false si se cortó por el apagado (se reprocesa al arrancar).
+    // Una compra puede confirmarse y fallar después (por ejemplo, en un afterCommit de stock o de los
+    // agregados de ventas): antes de cada reintento se busca por la clave de idempotencia, así no choca
+    // con el índice único ni se rechaza una compra que ya está guardada. En el primer intento solo se
+    // buscan las recuperadas del log, que pueden haberse guardado antes del corte.
+    private boolean save(List<Pending> batch) {
+        boolean retry = false;
+        while (running) {
+            List<Pending> toSave = new ArrayList<>(batch.size());
+            try {
+                for (Pending pending : batch) {
+                    boolean check = retry || pending.recovered();
+                    if (!check || !markIfSaved(pending)) {
+                        toSave.add(pending);
+                    }
+                }
+                if (toSave.isEmpty()) {
+                    return true;
+                }
+
+                List<PurchaseResult> results = purchaseService.saveAll(toSave.stream().map(Pending::purchase).toList());
+                for (PurchaseResult result : results) {
+                    String ticket = toSave.get(result.getIndex()).ticket();
+                    tickets.put(ticket, PurchaseResult.CREATED.equals(result.getStatus())
+                            ? PurchaseTicket.created(ticket, result.getPurchaseId())
+                            : PurchaseTicket.rejected(ticket, result.getError()));
+                }
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                // Una compra inválida (por ejemplo, un cliente que no existe) revierte todo el lote:
+                // se guardan de a una para rechazar solo esa
+                return saveEach(toSave);
+            } catch (RuntimeException e) {
+                log.warn("No se pudo guardar el lote de {} compras, se reintenta: {}", batch.size(), e.getMessage());
+                retry = true;
+                if (!pause()) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean saveEach(List<Pending> toSave) {
+        for (Pending pending : toSave) {
+            boolean retry = false;
+            while (true) {
+                try {
+                    if (retry && markIfSaved(pending)) {
+                        break;
+                    }
+                    Purchase saved = purchaseService.save(pending.purchase());
+                    tickets.put(pending.ticket(), PurchaseTicket.created(pending.ticket(), saved.getPurchaseId()));
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    // Puede ser el índice único de la clave: la compra ya estaba guardada
+                    if (!markIfSaved(pending)) {
+                        tickets.put(pending.ticket(), PurchaseTicket.rejected(pending.ticket(), e.getMessage()));
+                    }
+                    break;
+                } catch (InsufficientStockException | IllegalArgumentException e) {
+                    tickets.put(pending.ticket(), PurchaseTicket.rejected(pending.ticket(), e.getMessage()));
+                    break;
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo guardar la compra {}, se reintenta: {}", pending.ticket(), e.getMessage());
+                    retry = true;
+                    if (!pause()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // true si la compra ya está en la base (el ticket queda como creado)
+    private boolean markIfSaved(Pending pending) {
+        Optional<Purchase> saved = ReplicaRouting.onPrimary(() -> purchaseRepository.getByIdempotencyKey(
+                pending.purchase().getClientId(), pending.purchase().getIdempotencyKey()));
+        saved.ifPresent(purchase -> tickets.put(pending.ticket(), PurchaseTicket.created(pending.ticket(), purchase.getPurchaseId())));
+        return saved.isPresent();
+    }
+
+    // Espera antes de reintentar; false si mientras tanto se apagó la aplicación
+    private boolean pause() {
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return running;
+    }
+
+    // Lo que se puede comprobar sin la base: datos completos, productos existentes y stock a la vista.
+    // El stock se vuelve a verificar al guardar, así que una compra aceptada todavía puede rechazarse.
+    private void validate(Purchase purchase) {
+        if (purchase.getClientId() == null || purchase.getClientId().isBlank()) {
+            throw new IllegalArgumentException("La compra no tiene cliente");
+        }
+        if (purchase.getItems() == null || purchase.getItems().isEmpty()) {
+            throw new IllegalArgumentException("La compra no tiene productos");
+        }
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        for (PurchaseItem item : purchase.getItems()) {
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Cantidad inválida para el producto " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        quantities.forEach((productId, quantity) -> {
+            Product product = productService.getProduct(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            if (product.getStock() < quantity) {
+                throw new InsufficientStockException(productId, quantity);
+            }
+        });
+    }
+
+    private record Pending(long seq, String ticket, Purchase purchase, boolean recovered) {
+    }
+}
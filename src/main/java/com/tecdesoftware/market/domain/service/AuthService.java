@@ -1,12 +1,15 @@
 package com.tecdesoftware.market.domain.service;
 
 import com.tecdesoftware.market.config.JwtUtil;
+import com.tecdesoftware.market.domain.dto.AuthTokens;
 import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository; // Corregido: persistance en lugar de persistence
 import com.tecdesoftware.market.persistance.entity.Cliente; // Agregado: import de Cliente
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class AuthService {
 
@@ -14,15 +17,46 @@ public class AuthService {
     private ClienteCrudRepository clienteRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordVerifier passwordVerifier;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    public String login(String correo, String contrasena) {
-        return clienteRepository.findByCorreoElectronico(correo)
-                .filter(cliente -> passwordEncoder.matches(contrasena, cliente.getContrasena()))
-                .map(cliente -> jwtUtil.generateToken(cliente.getCorreoElectronico()))
-                .orElse(null);
+    // Primero el límite de intentos (barato), después BCrypt en su pool dedicado. El futuro queda vacío
+    // si las credenciales no son válidas
+    public CompletableFuture<Optional<AuthTokens>> login(String correo, String contrasena, String ip) {
+        loginRateLimiter.check(correo, ip);
+        Optional<Cliente> cliente = clienteRepository.findByCorreoElectronico(correo);
+        if (cliente.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return passwordVerifier.matches(contrasena, cliente.get().getContrasena())
+                .thenApply(matches -> matches
+                        ? Optional.of(issueTokens(cliente.get().getCorreoElectronico()))
+                        : Optional.empty());
+    }
+
+    // Cambia un refresh token por un JWT nuevo (y un refresh token nuevo) sin BCrypt ni base de datos
+    public Optional<AuthTokens> refresh(String refreshToken) {
+        return refreshTokenStore.consume(refreshToken).map(this::issueTokens);
+    }
+
+    // Con all se cierran todas las sesiones del dueño del token (por ejemplo, si cree que se lo robaron)
+    public void logout(String refreshToken, boolean all) {
+        if (all) {
+            refreshTokenStore.consume(refreshToken).ifPresent(refreshTokenStore::revokeAll);
+        } else {
+            refreshTokenStore.revoke(refreshToken);
+        }
+    }
+
+    private AuthTokens issueTokens(String correo) {
+        return new AuthTokens(jwtUtil.generateToken(correo), refreshTokenStore.issue(correo));
     }
 }
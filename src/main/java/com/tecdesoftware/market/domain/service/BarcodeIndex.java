@@ -0,0 +1,223 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.dto.BarcodeSnapshot;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+// Índice código de barras -> (producto, precio, stock) para las cajas. Los códigos numéricos
+// (EAN/UPC) se codifican como long y todo vive en arreglos primitivos, así millones de
+// productos no agregan millones de objetos al heap. Las lecturas son optimistas y sin lock.
+@Component
+public class BarcodeIndex {
+
+    // Columnas de la tabla de códigos
+    private static final int PRODUCT_ID = 0;
+    private static final int PRICE_CENTS = 1;
+    private static final int STOCK = 2;
+    // Columna de la tabla de productos: clave del código de barras actual
+    private static final int BARCODE_KEY = 0;
+
+    private static final int INITIAL_SIZE = 1 << 16;
+    // Hasta 18 dígitos caben en un long anteponiendo un 1 (conserva los ceros a la izquierda)
+    private static final int MAX_NUMERIC_DIGITS = 18;
+
+    private final StampedLock lock = new StampedLock();
+    private LongHashTable barcodes = new LongHashTable(INITIAL_SIZE, 3);
+    private LongHashTable products = new LongHashTable(INITIAL_SIZE, 1);
+    // Códigos no numéricos (poco frecuentes) -> clave negativa asignada
+    private final Map<String, Long> otherCodes = new ConcurrentHashMap<>();
+    private long nextOtherKey = -1;
+    private final ProductIndexLoad startup = new ProductIndexLoad();
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        load(productRepository);
+    }
+
+    // Se carga desde el primario, que es lo que después mantienen al día los cambios
+    void load(ProductRepository source) {
+        startup.run(source, this::index, this::unindex);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Optional<BarcodeSnapshot> find(String barcode) {
+        long stamp = lock.tryOptimisticRead();
+        BarcodeSnapshot snapshot = read(barcode);
+        if (!lock.validate(stamp)) {
+            // Hubo una escritura en el medio: se vuelve a leer con el lock de lectura
+            stamp = lock.readLock();
+            try {
+                snapshot = read(barcode);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    // Mientras se carga el índice los cambios los resuelve la carga releyendo el producto
+    public void put(Product product) {
+        if (!startup.defer(product.getProductId())) {
+            index(product);
+        }
+    }
+
+    public void remove(int productId) {
+        if (!startup.defer(productId)) {
+            unindex(productId);
+        }
+    }
+
+    public void adjustStock(int productId, int delta) {
+        if (startup.defer(productId)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int productSlot = products.find(productId);
+            if (productSlot < 0) {
+                return;
+            }
+            int slot = barcodes.find(products.get(productSlot, BARCODE_KEY));
+            barcodes.set(slot, STOCK, barcodes.get(slot, STOCK) + delta);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Solo se indexan productos activos con código de barras
+    private void index(Product product) {
+        long stamp = lock.writeLock();
+        try {
+            removeIndexed(product.getProductId());
+            if (!product.isActive() || product.getBarcode() == null || product.getBarcode().isBlank()) {
+                return;
+            }
+            long key = keyForWrite(product.getBarcode());
+            // Si otro producto tenía el mismo código, queda el último guardado
+            int previous = barcodes.find(key);
+            if (previous >= 0) {
+                products.remove(barcodes.get(previous, PRODUCT_ID));
+            }
+
+            int slot = barcodes.insert(key);
+            if (slot < 0) {
+                barcodes = barcodes.grow();
+                slot = barcodes.insert(key);
+            }
+            barcodes.set(slot, PRODUCT_ID, product.getProductId());
+            barcodes.set(slot, PRICE_CENTS, product.getPrice() != null ? product.getPrice().getMinorUnits() : 0);
+            barcodes.set(slot, STOCK, product.getStock());
+
+            int productSlot = products.insert(product.getProductId());
+            if (productSlot < 0) {
+                products = products.grow();
+                productSlot = products.insert(product.getProductId());
+            }
+            products.set(productSlot, BARCODE_KEY, key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void unindex(int productId) {
+        long stamp = lock.writeLock();
+        try {
+            removeIndexed(productId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return barcodes.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private BarcodeSnapshot read(String barcode) {
+        long key = keyForRead(barcode);
+        if (key == 0) {
+            return null;
+        }
+        LongHashTable table = barcodes;
+        int slot = table.find(key);
+        if (slot < 0) {
+            return null;
+        }
+        int productId = (int) table.get(slot, PRODUCT_ID);
+        long priceCents = table.get(slot, PRICE_CENTS);
+        int stock = (int) table.get(slot, STOCK);
+        return new BarcodeSnapshot(productId, barcode, Money.ofMinor(priceCents), stock);
+    }
+
+    // Se llama con el lock de escritura
+    private void removeIndexed(int productId) {
+        int productSlot = products.find(productId);
+        if (productSlot < 0) {
+            return;
+        }
+        long key = products.get(productSlot, BARCODE_KEY);
+        products.remove(productId);
+        barcodes.remove(key);
+        if (key < 0) {
+            otherCodes.values().remove(key);
+        }
+    }
+
+    private long keyForRead(String barcode) {
+        long numeric = numericKey(barcode);
+        if (numeric != 0) {
+            return numeric;
+        }
+        Long other = otherCodes.get(barcode);
+        return other != null ? other : 0;
+    }
+
+    // Se llama con el lock de escritura
+    private long keyForWrite(String barcode) {
+        long numeric = numericKey(barcode);
+        if (numeric != 0) {
+            return numeric;
+        }
+        return otherCodes.computeIfAbsent(barcode, code -> nextOtherKey--);
+    }
+
+    // 0 si el código no es numérico o es demasiado largo para un long
+    private static long numericKey(String barcode) {
+        int length = barcode.length();
+        if (length == 0 || length > MAX_NUMERIC_DIGITS) {
+            return 0;
+        }
+        long key = 1;
+        for (int i = 0; i < length; i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+}
@@ -0,0 +1,67 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.dto.CatalogVersion;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Contadores de versión del catálogo completo y de cada categoría. ProductService los incrementa
+// después de cada cambio de productos o de stock, así el ETag se calcula sin leer la base.
+@Component
+public class CatalogVersions {
+
+    // Los contadores vuelven a 0 al reiniciar: el prefijo evita repetir un ETag de otra ejecución
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Generación común a todas las categorías; changedAll la incrementa en lugar de recorrerlas
+    private volatile Generation generation = new Generation(0, System.currentTimeMillis());
+    private volatile CatalogVersion global = new CatalogVersion(etag("g", "0"), generation.startedAt);
+    private long globalVersion;
+    // Solo categorías que cambiaron en la generación actual
+    private final Map<Integer, CatalogVersion> byCategory = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> categoryVersions = new ConcurrentHashMap<>();
+
+    public CatalogVersion global() {
+        return global;
+    }
+
+    public CatalogVersion category(int categoryId) {
+        CatalogVersion version = byCategory.get(categoryId);
+        if (version != null) {
+            return version;
+        }
+        Generation current = generation;
+        return new CatalogVersion(etag("c" + categoryId, current.number + ".0"), current.startedAt);
+    }
+
+    public synchronized void changed(int categoryId) {
+        long now = System.currentTimeMillis();
+        long version = categoryVersions.merge(categoryId, 1L, Long::sum);
+        byCategory.put(categoryId, new CatalogVersion(etag("c" + categoryId, generation.number + "." + version), now));
+        global = new CatalogVersion(etag("g", String.valueOf(++globalVersion)), now);
+    }
+
+    // Para cambios de un producto cuya categoría no se conoce (por ejemplo, ya eliminado)
+    public synchronized void changedAll() {
+        long now = System.currentTimeMillis();
+        generation = new Generation(generation.number + 1, now);
+        byCategory.clear();
+        categoryVersions.clear();
+        global = new CatalogVersion(etag("g", String.valueOf(++globalVersion)), now);
+    }
+
+    private String etag(String scope, String version) {
+        return "\"" + epoch + "-" + scope + "-" + version + "\"";
+    }
+
+    private static final class Generation {
+        private final long number;
+        private final long startedAt;
+
+        private Generation(long number, long startedAt) {
+            this.number = number;
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tecdesoftware.market.config.ReplicaRouting;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.SavedPurchase;
+import com.tecdesoftware.market.domain.exception.IdempotencyKeyReusedException;
+import com.tecdesoftware.market.domain.exception.PurchaseInProgressException;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Deduplica POST /purchases por Idempotency-Key. El primer envío de una clave registra la compra y
+// los repetidos que llegan mientras tanto esperan ese mismo resultado en lugar de volver a guardar.
+// Las claves recientes se recuerdan en memoria; el índice único de la base cubre las desalojadas
+// y las que llegan a otra instancia. Junto a la clave se guarda una huella del contenido: un
+// reintento con la misma clave y otra compra se rechaza en lugar de devolver la primera.
+@Service
+public class IdempotentPurchaseService {
+
+    // Igual al largo de compras.clave_idempotencia
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final Cache<String, Attempt> results;
+    private final long waitTimeoutMs;
+    private final Counter replayed;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    public IdempotentPurchaseService(MeterRegistry meterRegistry,
+                                     @Value("${market.purchases.idempotency.max-keys:100000}") long maxKeys,
+                                     @Value("${market.purchases.idempotency.ttl-hours:24}") long ttlHours,
+                                     @Value("${market.purchases.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+        this.replayed = Counter.builder("purchases.idempotent.replayed")
+                .description("Compras repetidas respondidas con el resultado del primer envío")
+                .register(meterRegistry);
+    }
+
+    public SavedPurchase save(Purchase purchase, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            purchase.setIdempotencyKey(null);
+            return new SavedPurchase(purchaseService.save(purchase), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        // La clave es única por cliente, igual que en el índice de la base
+        String key = purchase.getClientId() + '\n' + idempotencyKey;
+        String requestHash = requestHash(purchase);
+        Attempt attempt = new Attempt(requestHash, new CompletableFuture<>());
+        Attempt existing = results.asMap().putIfAbsent(key, attempt);
+        if (existing != null) {
+            if (!existing.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(idempotencyKey);
+            }
+            return replay(await(existing.result(), idempotencyKey));
+        }
+
+        try {
+            SavedPurchase saved = saveOnce(purchase, idempotencyKey, requestHash);
+            attempt.result().complete(saved.getPurchase());
+            return saved;
+        } catch (RuntimeException e) {
+            // Los errores no se recuerdan: el cliente puede reintentar con la misma clave
+            results.asMap().remove(key, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // SHA-256 de lo que define la compra: medio de pago, comentario, estado y cantidades por producto.
+    // La fecha y los totales no cuentan: el cliente suele regenerar la fecha al reintentar y los
+    // totales se calculan con el precio del producto
+    private static String requestHash(Purchase purchase) {
+        StringBuilder content = new StringBuilder()
+                .append(purchase.getPaymentMethod()).append('\n')
+                .append(purchase.getComment()).append('\n')
+                .append(purchase.getState()).append('\n');
+        if (purchase.getItems() != null) {
+            purchase.getItems().stream()
+                    .sorted(Comparator.comparingInt(PurchaseItem::getProductId)
+                            .thenComparingInt(PurchaseItem::getQuantity))
+                    .forEach(item -> content.append(item.getProductId()).append(':')
+                            .append(item.getQuantity()).append(':')
+                            .append(item.isActive()).append('\n'));
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 siempre está disponible en la JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SavedPurchase saveOnce(Purchase purchase, String idempotencyKey, String requestHash) {
+        // Se consulta el primario: una réplica atrasada no tendría la compra recién registrada
+        Optional<Purchase> previous = ReplicaRouting.onPrimary(
+                () -> purchaseRepository.getByIdempotencyKey(purchase.getClientId(), idempotencyKey));
+        if (previous.isPresent()) {
+            return replay(previous.get(), idempotencyKey, requestHash);
+        }
+
+        purchase.setIdempotencyKey(idempotencyKey);
+        purchase.setRequestHash(requestHash);
+        try {
+            return new SavedPurchase(purchaseService.save(purchase), false);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia registró la misma clave entre la consulta y el INSERT; la transacción
+            // se revirtió completa (incluido el stock) y se devuelve la compra que quedó
+            return ReplicaRouting.onPrimary(
+                            () -> purchaseRepository.getByIdempotencyKey(purchase.getClientId(), idempotencyKey))
+                    .map(saved -> replay(saved, idempotencyKey, requestHash))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Purchase await(CompletableFuture<Purchase> pending, String idempotencyKey) {
+        try {
+            return pending.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new PurchaseInProgressException(idempotencyKey);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PurchaseInProgressException(idempotencyKey);
+        } catch (ExecutionException e) {
+            // El primer envío falló: los repetidos reciben el mismo error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Las compras guardadas antes de registrar la huella no se comparan
+    private SavedPurchase replay(Purchase purchase, String idempotencyKey, String requestHash) {
+        if (purchase.getRequestHash() != null && !purchase.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return replay(purchase);
+    }
+
+    private SavedPurchase replay(Purchase purchase) {
+        replayed.increment();
+        return new SavedPurchase(purchase, true);
+    }
+
+    // Primer envío de una clave: huella de su contenido y resultado que esperan los repetidos
+    private record Attempt(String requestHash, CompletableFuture<Purchase> result) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tecdesoftware.market.domain.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Límite de intentos de login por correo y por IP en ventanas fijas (se cuenta desde el primer intento)
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, AtomicInteger> attempts;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final long windowSeconds;
+    private final Counter rejected;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${market.auth.rate-limit.max-per-email:10}") int maxPerEmail,
+                            @Value("${market.auth.rate-limit.max-per-ip:50}") int maxPerIp,
+                            @Value("${market.auth.rate-limit.window-seconds:60}") long windowSeconds) {
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.windowSeconds = windowSeconds;
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+        this.rejected = Counter.builder("auth.login.throttled")
+                .description("Intentos de login rechazados por límite de frecuencia")
+                .register(meterRegistry);
+    }
+
+    public void check(String correo, String ip) {
+        boolean emailExceeded = correo != null && increment("email:" + correo.toLowerCase()) > maxPerEmail;
+        boolean ipExceeded = ip != null && increment("ip:" + ip) > maxPerIp;
+        if (emailExceeded || ipExceeded) {
+            rejected.increment();
+            throw new TooManyLoginAttemptsException(windowSeconds);
+        }
+    }
+
+    private int increment(String key) {
+        return attempts.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -0,0 +1,124 @@
+package com.tecdesoftware.market.domain.service;
+
+import java.util.Arrays;
+
+// Tabla hash de direccionamiento abierto (sondeo lineal) sobre arreglos primitivos.
+// Cada clave long (distinta de 0) guarda un número fijo de columnas long contiguas, así
+// millones de entradas son unos pocos arreglos grandes en lugar de millones de objetos.
+// No es thread-safe: quien la usa coordina lectores y escritores.
+final class LongHashTable {
+
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int columns;
+    private final int mask;
+    private int size;
+
+    LongHashTable(int expectedSize, int columns) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity * columns];
+        this.columns = columns;
+        this.mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Cantidad de posiciones; keyAt(slot) es 0 en las vacías
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    // Posición de la clave o -1 si no está
+    int find(long key) {
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return slot;
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    long get(int slot, int column) {
+        return values[slot * columns + column];
+    }
+
+    void set(int slot, int column, long value) {
+        values[slot * columns + column] = value;
+    }
+
+    // Posición de la clave, agregándola si no estaba; -1 si hay que agrandar la tabla primero
+    int insert(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("La clave 0 está reservada");
+        }
+        int slot = slot(key);
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        // Se mantiene al menos un tercio libre para que los sondeos sean cortos
+        if ((size + 1) * 3L > keys.length * 2L) {
+            return -1;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    // Borrado con corrimiento hacia atrás: no deja marcas de borrado que alarguen los sondeos
+    boolean remove(long key) {
+        int hole = find(key);
+        if (hole < 0) {
+            return false;
+        }
+        for (int slot = (hole + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            // La entrada puede ocupar el hueco si su posición ideal no está entre el hueco y ella
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                System.arraycopy(values, slot * columns, values, hole * columns, columns);
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        Arrays.fill(values, hole * columns, (hole + 1) * columns, 0L);
+        size--;
+        return true;
+    }
+
+    // Copia todas las entradas en una tabla con el doble de capacidad
+    LongHashTable grow() {
+        LongHashTable bigger = new LongHashTable(keys.length, columns);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                int target = bigger.insert(keys[slot]);
+                System.arraycopy(values, slot * columns, bigger.values, target * columns, columns);
+            }
+        }
+        return bigger;
+    }
+
+    private int slot(long key) {
+        // Mezcla de bits (finalizador de MurmurHash3) para que claves correlativas no se agrupen
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53ec2cbL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,104 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tecdesoftware.market.domain.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+// Cache acotada (tamaño + TTL) de productos por id y de listas de productos por categoría
+// Los valores cacheados no salen de acá: se entregan copias, que quien llama puede modificar
+// Como MeterBinder, publica sus aciertos/fallos/desalojos en Micrometer (cache.gets, cache.evictions, ...)
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final Cache<Integer, Product> products;
+    private final Cache<Integer, List<Product>> categories;
+
+    public ProductCache(@Value("${market.cache.products.max-size:10000}") long productsMaxSize,
+                        @Value("${market.cache.categories.max-size:500}") long categoriesMaxSize,
+                        @Value("${market.cache.products.ttl-seconds:300}") long ttlSeconds) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.categories = Caffeine.newBuilder()
+                .maximumSize(categoriesMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, categories, "productsByCategory");
+    }
+
+    // Devuelve el producto en cache o lo carga; los productos inexistentes no se guardan
+    public Optional<Product> getProduct(int productId, IntFunction<Optional<Product>> loader) {
+        return Optional.ofNullable(products.get(productId, id -> loader.apply(id).orElse(null))).map(Products::copy);
+    }
+
+    public Optional<List<Product>> getByCategory(int categoryId, IntFunction<Optional<List<Product>>> loader) {
+        return Optional.ofNullable(categories.get(categoryId, id -> loader.apply(id).orElse(null))).map(Products::copyAll);
+    }
+
+    // Producto ya cacheado (sin cargarlo), útil para saber su categoría anterior
+    public Optional<Product> peek(int productId) {
+        return Optional.ofNullable(products.getIfPresent(productId)).map(Products::copy);
+    }
+
+    public void evictProduct(int productId) {
+        products.invalidate(productId);
+    }
+
+    public void evictCategory(int categoryId) {
+        categories.invalidate(categoryId);
+    }
+
+    // Cambió el stock: se desaloja el producto y las listas de categoría que lo contienen
+    public void evictStock(int productId) {
+        Product cached = products.getIfPresent(productId);
+        products.invalidate(productId);
+        if (cached != null) {
+            categories.invalidate(cached.getCategoryId());
+        } else {
+            categories.asMap().values().removeIf(list ->
+                    list.stream().anyMatch(product -> product.getProductId() == productId));
+        }
+    }
+
+    public void evictAll() {
+        products.invalidateAll();
+        categories.invalidateAll();
+    }
+
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("products", toMap(products.stats(), products.estimatedSize()));
+        stats.put("categories", toMap(categories.stats(), categories.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Long> toMap(CacheStats stats, long size) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("hits", stats.hitCount());
+        values.put("misses", stats.missCount());
+        values.put("evictions", stats.evictionCount());
+        values.put("size", size);
+        return values;
+    }
+}
@@ -0,0 +1,63 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.config.ReplicaRouting;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Carga inicial de un índice de productos que ya recibe cambios mientras se carga. Igual que en
+// SalesRollups, los cambios que llegan durante la carga no se aplican: se anota el producto, la
+// carga saltea su fila y al terminar lo relee del primario, que ya tiene el cambio confirmado.
+// Queda la misma ventana que en SalesRollups: un cambio confirmado antes de leer la fila cuyo
+// afterCommit corre después de que el índice quedó listo se aplica dos veces.
+final class ProductIndexLoad {
+
+    // Productos que cambiaron mientras se cargaba el índice
+    private final Set<Integer> changed = new HashSet<>();
+    private boolean done;
+
+    // true si el índice todavía se está cargando: el cambio queda anotado y lo resuelve run()
+    synchronized boolean defer(int productId) {
+        if (done) {
+            return false;
+        }
+        changed.add(productId);
+        return true;
+    }
+
+    // put y remove tienen que escribir directo en el índice, sin pasar por defer
+    void run(ProductRepository productRepository, Consumer<Product> put, IntConsumer remove) {
+        ReplicaRouting.onPrimary(() -> productRepository.streamAll(product -> {
+            if (!isChanged(product.getProductId())) {
+                put.accept(product);
+            }
+        }));
+
+        // Si el producto vuelve a cambiar mientras se relee, queda anotado y se relee otra vez
+        while (true) {
+            List<Integer> ids;
+            synchronized (this) {
+                if (changed.isEmpty()) {
+                    done = true;
+                    return;
+                }
+                ids = new ArrayList<>(changed);
+                changed.clear();
+            }
+            for (int productId : ids) {
+                ReplicaRouting.onPrimary(() -> productRepository.getProduct(productId))
+                        .ifPresentOrElse(put, () -> remove.accept(productId));
+            }
+        }
+    }
+
+    private synchronized boolean isChanged(int productId) {
+        return changed.contains(productId);
+    }
+}
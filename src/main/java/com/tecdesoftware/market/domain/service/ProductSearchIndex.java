@@ -0,0 +1,304 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Índice invertido en memoria sobre el nombre y el código de barras de los productos.
+// Los términos están ordenados para resolver prefijos como rangos, y cada término de al menos
+// MIN_TYPO_LENGTH letras registra sus variantes con una letra borrada para tolerar un error de tipeo.
+@Component
+public class ProductSearchIndex {
+
+    // Con menos letras un error de tipeo coincide con demasiados términos
+    private static final int MIN_TYPO_LENGTH = 4;
+    // Un prefijo de una sola letra recorrería casi todo el diccionario
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    // Calidad de la coincidencia, de mejor a peor
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int TYPO = 2;
+    private static final Comparator<Ranked> RANKING = Comparator.comparingInt(Ranked::rank)
+            .thenComparing(ranked -> ranked.product().getName(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparingInt(ranked -> ranked.product().getProductId());
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    // Término -> ids de productos que lo contienen
+    private final ConcurrentSkipListMap<String, Set<Integer>> postings = new ConcurrentSkipListMap<>();
+    // Término con una letra borrada -> términos originales
+    private final Map<String, Set<String>> deletions = new ConcurrentHashMap<>();
+    // Último estado indexado de cada producto; se escribe con el lock del índice
+    private final Map<Integer, Product> byId = new ConcurrentHashMap<>();
+    private final ProductIndexLoad startup = new ProductIndexLoad();
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        load(productRepository);
+    }
+
+    // Se carga desde el primario, que es lo que después mantienen al día los cambios
+    void load(ProductRepository source) {
+        startup.run(source, this::index, this::unindex);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Todos los términos de la consulta deben coincidir; el último además se busca como prefijo.
+    // Primero los productos que coinciden exacto, después por prefijo y al final con errores de tipeo
+    // (cuenta el término peor resuelto); a igual coincidencia, por nombre
+    public List<Product> search(String query, Integer categoryId, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> ranks = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            Map<Integer, Integer> matches = match(tokens.get(i), i == tokens.size() - 1);
+            ranks = ranks == null ? matches : intersect(ranks, matches);
+            if (ranks.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        // Se ordenan todas las coincidencias, no las primeras que aparezcan: el heap guarda las
+        // limit mejores con la peor arriba para descartarla
+        PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<Integer, Integer> entry : ranks.entrySet()) {
+            Product product = byId.get(entry.getKey());
+            if (product != null && (categoryId == null || product.getCategoryId() == categoryId)) {
+                best.add(new Ranked(entry.getValue(), product));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<Ranked> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<Product> results = new ArrayList<>(ranked.size());
+        for (Ranked entry : ranked) {
+            results.add(entry.product());
+        }
+        return results;
+    }
+
+    // Mientras se carga el índice los cambios los resuelve la carga releyendo el producto
+    public void put(Product product) {
+        if (!startup.defer(product.getProductId())) {
+            index(product);
+        }
+    }
+
+    public void remove(int productId) {
+        if (!startup.defer(productId)) {
+            unindex(productId);
+        }
+    }
+
+    // Mantiene al día el stock que se devuelve en los resultados
+    public void adjustStock(int productId, int delta) {
+        if (startup.defer(productId)) {
+            return;
+        }
+        synchronized (this) {
+            Product previous = byId.get(productId);
+            if (previous != null) {
+                byId.put(productId, Products.copyWithStock(previous, previous.getStock() + delta));
+            }
+        }
+    }
+
+    // Solo se indexan productos activos
+    private synchronized void index(Product product) {
+        unindex(product.getProductId());
+        if (!product.isActive()) {
+            return;
+        }
+        byId.put(product.getProductId(), product);
+        for (String term : terms(product)) {
+            postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(product.getProductId());
+            if (typoTolerant(term)) {
+                for (String deletion : deletionsOf(term)) {
+                    deletions.computeIfAbsent(deletion, d -> ConcurrentHashMap.newKeySet()).add(term);
+                }
+            }
+        }
+    }
+
+    private synchronized void unindex(int productId) {
+        Product previous = byId.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : terms(previous)) {
+            Set<Integer> ids = postings.get(term);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(productId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+                if (typoTolerant(term)) {
+                    for (String deletion : deletionsOf(term)) {
+                        Set<String> originals = deletions.get(deletion);
+                        if (originals != null && originals.remove(term) && originals.isEmpty()) {
+                            deletions.remove(deletion);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Id -> mejor coincidencia del token con ese producto
+    private Map<Integer, Integer> match(String token, boolean prefix) {
+        Map<Integer, Integer> ranks = new HashMap<>();
+        rankAll(ranks, postings.get(token), EXACT);
+        if (prefix && token.length() >= MIN_PREFIX_LENGTH) {
+            for (Set<Integer> prefixed : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                rankAll(ranks, prefixed, PREFIX);
+            }
+        }
+        // Solo se aceptan errores de tipeo si la palabra no aparece tal cual
+        if (ranks.isEmpty() && typoTolerant(token)) {
+            for (String term : typoCandidates(token)) {
+                rankAll(ranks, postings.get(term), TYPO);
+            }
+        }
+        return ranks;
+    }
+
+    // Términos a distancia 1 (inserción, borrado, sustitución o transposición) del token
+    private Set<String> typoCandidates(String token) {
+        Set<String> candidates = new LinkedHashSet<>();
+        addAll(candidates, deletions.get(token));
+        for (String deletion : deletionsOf(token)) {
+            if (postings.containsKey(deletion)) {
+                candidates.add(deletion);
+            }
+            addAll(candidates, deletions.get(deletion));
+        }
+        candidates.removeIf(term -> !withinOneEdit(token, term));
+        return candidates;
+    }
+
+    // Un producto queda con la peor coincidencia de sus términos
+    private static Map<Integer, Integer> intersect(Map<Integer, Integer> left, Map<Integer, Integer> right) {
+        Map<Integer, Integer> smaller = left.size() <= right.size() ? left : right;
+        Map<Integer, Integer> larger = smaller == left ? right : left;
+        Map<Integer, Integer> result = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : smaller.entrySet()) {
+            Integer other = larger.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), Math.max(entry.getValue(), other));
+            }
+        }
+        return result;
+    }
+
+    private static void rankAll(Map<Integer, Integer> ranks, Set<Integer> ids, int rank) {
+        if (ids != null) {
+            for (Integer id : ids) {
+                ranks.merge(id, rank, Math::min);
+            }
+        }
+    }
+
+    private static <T> void addAll(Set<T> target, Set<T> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private static Set<String> terms(Product product) {
+        Set<String> terms = new HashSet<>(tokenize(product.getName()));
+        terms.addAll(tokenize(product.getBarcode()));
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Los códigos de barras se buscan exactos o por prefijo, no con errores de tipeo
+    private static boolean typoTolerant(String term) {
+        return term.length() >= MIN_TYPO_LENGTH && !term.chars().allMatch(Character::isDigit);
+    }
+
+    private static Set<String> deletionsOf(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    // Distancia de Damerau-Levenshtein (alineamiento óptimo) menor o igual a 1
+    private static boolean withinOneEdit(String a, String b) {
+        int lengthDiff = a.length() - b.length();
+        if (Math.abs(lengthDiff) > 1) {
+            return false;
+        }
+        int start = 0;
+        while (start < a.length() && start < b.length() && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        if (lengthDiff > 0) {
+            return a.substring(start + 1).equals(b.substring(start));
+        }
+        if (lengthDiff < 0) {
+            return a.substring(start).equals(b.substring(start + 1));
+        }
+        if (start == a.length()) {
+            return true;
+        }
+        if (a.substring(start + 1).equals(b.substring(start + 1))) {
+            return true;
+        }
+        return start + 1 < a.length()
+                && a.charAt(start) == b.charAt(start + 1)
+                && a.charAt(start + 1) == b.charAt(start)
+                && a.substring(start + 2).equals(b.substring(start + 2));
+    }
+
+    private record Ranked(int rank, Product product) {
+    }
+}
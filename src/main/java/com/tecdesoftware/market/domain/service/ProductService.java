@@ -1,43 +1,211 @@
 package com.tecdesoftware.market.domain.service;
 
+import com.tecdesoftware.market.config.ReplicaRouting;
 import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.dto.BarcodeSnapshot;
+import com.tecdesoftware.market.domain.dto.CatalogVersion;
+import com.tecdesoftware.market.domain.dto.ProductPage;
+import com.tecdesoftware.market.domain.exception.InsufficientStockException;
+import com.tecdesoftware.market.domain.exception.ProductNotFoundException;
 import com.tecdesoftware.market.domain.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class ProductService {
 
+    // Tamaño máximo de página permitido para la paginación por cursor
+    public static final int MAX_PAGE_SIZE = 500;
+    // Cantidad máxima de resultados de una búsqueda
+    public static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ScarceProductIndex scarceProductIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private BarcodeIndex barcodeIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private RecentWrites recentWrites;
+
     public List<Product> getAll() {
-        return productRepository.getAll();
+        return recentWrites.read(RecentWrites.CATALOG, productRepository::getAll);
+    }
+
+    // Versión actual del catálogo completo / de una categoría, sin consultar la base
+    public CatalogVersion getCatalogVersion() {
+        return catalogVersions.global();
+    }
+
+    public CatalogVersion getCategoryVersion(int categoryId) {
+        return catalogVersions.category(categoryId);
+    }
+
+    public ProductPage getPage(int afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Product> products = productRepository.getPage(afterId, pageSize);
+
+        ProductPage page = new ProductPage();
+        page.setItems(products);
+        // Si la página vino llena puede haber más productos después del último id
+        page.setNextCursor(products.size() == pageSize ? products.get(products.size() - 1).getProductId() : null);
+        return page;
+    }
+
+    public void streamAll(Consumer<Product> consumer) {
+        productRepository.streamAll(consumer);
+    }
+
+    // Vacío mientras el índice de búsqueda se carga al arrancar
+    public Optional<List<Product>> search(String query, Integer categoryId, int limit) {
+        if (!productSearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return Optional.of(productSearchIndex.search(query, categoryId, maxResults));
+    }
+
+    public Optional<BarcodeSnapshot> getByBarcode(String barcode) {
+        // Mientras el índice se carga al arrancar se consulta la base de datos
+        if (barcodeIndex.isReady()) {
+            return barcodeIndex.find(barcode);
+        }
+        return productRepository.getByBarcode(barcode)
+                .map(product -> new BarcodeSnapshot(product.getProductId(), barcode, product.getPrice(), product.getStock()));
     }
 
     public Optional<Product> getProduct(int productId) {
-        return productRepository.getProduct(productId);
+        return productCache.getProduct(productId,
+                id -> recentWrites.read(RecentWrites.product(id), () -> productRepository.getProduct(id)));
     }
 
     public Optional<List<Product>> getByCategory(int categoryId) {
-        return productRepository.getByCategory(categoryId);
+        // Lo que entra a la cache no debe venir de una réplica atrasada respecto de un cambio reciente
+        return productCache.getByCategory(categoryId,
+                id -> recentWrites.read(RecentWrites.category(id), () -> productRepository.getByCategory(id)));
     }
 
     public Optional<List<Product>> getScarceProducts(int quantity) {
+        // Mientras el índice se carga al arrancar se consulta la base de datos
+        if (scarceProductIndex.isReady()) {
+            return Optional.of(scarceProductIndex.getScarce(quantity));
+        }
         return productRepository.getScarceProducts(quantity);
     }
 
     public Product save(Product product) {
-        return productRepository.save(product);
+        // Si el producto cambia de categoría, la anterior también queda desactualizada
+        Optional<Product> previous = product.getProductId() == 0 ? Optional.empty()
+                : productCache.peek(product.getProductId())
+                        .or(() -> ReplicaRouting.onPrimary(() -> productRepository.getProduct(product.getProductId())));
+        previous.ifPresent(p -> productCache.evictCategory(p.getCategoryId()));
+
+        Product saved = productRepository.save(product);
+        recordWrite(saved);
+        evict(saved);
+        previous.filter(p -> p.getCategoryId() != saved.getCategoryId())
+                .ifPresent(p -> {
+                    recentWrites.record(RecentWrites.category(p.getCategoryId()));
+                    catalogVersions.changed(p.getCategoryId());
+                });
+        catalogVersions.changed(saved.getCategoryId());
+        scarceProductIndex.put(saved);
+        productSearchIndex.put(saved);
+        barcodeIndex.put(saved);
+        return saved;
+    }
+
+    // Descuenta stock dentro de la transacción actual; cache e índice se actualizan recién después del commit
+    public void decreaseStock(int productId, int quantity) {
+        if (!productRepository.decreaseStock(productId, quantity)) {
+            // El UPDATE no distingue un producto inexistente de uno sin stock suficiente
+            if (ReplicaRouting.onPrimary(() -> productRepository.getProduct(productId)).isEmpty()) {
+                throw new ProductNotFoundException(productId);
+            }
+            throw new InsufficientStockException(productId, quantity);
+        }
+        stockChangedAfterCommit(productId, -quantity);
+    }
+
+    // Bloquea los productos hasta el fin de la transacción actual (en orden de id) y devuelve su stock
+    public Map<Integer, Integer> lockStock(Collection<Integer> productIds) {
+        return productIds.isEmpty() ? Map.of() : productRepository.lockStock(productIds);
+    }
+
+    private void stockChangedAfterCommit(int productId, int delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stockChanged(productId, delta);
+                }
+            });
+        } else {
+            stockChanged(productId, delta);
+        }
+    }
+
+    private void stockChanged(int productId, int delta) {
+        // Solo el producto y su categoría leen del primario por un rato; el catálogo completo no.
+        // La categoría se busca antes de desalojar el producto de la cache
+        recentWrites.record(RecentWrites.product(productId));
+        productCache.peek(productId).or(() -> ReplicaRouting.onPrimary(() -> productRepository.getProduct(productId)))
+                .ifPresentOrElse(product -> {
+                    recentWrites.record(RecentWrites.category(product.getCategoryId()));
+                    catalogVersions.changed(product.getCategoryId());
+                }, catalogVersions::changedAll);
+        productCache.evictStock(productId);
+        scarceProductIndex.adjustStock(productId, delta);
+        productSearchIndex.adjustStock(productId, delta);
+        barcodeIndex.adjustStock(productId, delta);
     }
 
     public boolean delete(int productId) {
         return getProduct(productId).map(product -> {
             productRepository.delete(productId);
+            recordWrite(product);
+            evict(product);
+            catalogVersions.changed(product.getCategoryId());
+            scarceProductIndex.remove(productId);
+            productSearchIndex.remove(productId);
+            barcodeIndex.remove(productId);
             return true;
         }).orElse(false);
     }
+
+    public Map<String, Map<String, Long>> getCacheStats() {
+        return productCache.getStats();
+    }
+
+    // Alta, baja o modificación de un producto: cambian el producto, su categoría y el listado completo
+    private void recordWrite(Product product) {
+        recentWrites.record(RecentWrites.CATALOG);
+        recentWrites.record(RecentWrites.product(product.getProductId()));
+        recentWrites.record(RecentWrites.category(product.getCategoryId()));
+    }
+
+    private void evict(Product product) {
+        productCache.evictProduct(product.getProductId());
+        productCache.evictCategory(product.getCategoryId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Category;
+import com.tecdesoftware.market.domain.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Utilidades para los índices en memoria de productos
+final class Products {
+
+    private Products() {
+    }
+
+    // Los productos indexados se comparten con los lectores, por eso no se modifican en el lugar
+    static Product copyWithStock(Product product, int stock) {
+        Product copy = new Product();
+        copy.setProductId(product.getProductId());
+        copy.setName(product.getName());
+        copy.setCategoryId(product.getCategoryId());
+        copy.setBarcode(product.getBarcode());
+        copy.setPrice(product.getPrice());
+        copy.setStock(stock);
+        copy.setActive(product.isActive());
+        copy.setCategory(copy(product.getCategory()));
+        return copy;
+    }
+
+    // Copia para entregar fuera de una cache: quien la recibe puede modificarla sin tocar lo cacheado
+    static Product copy(Product product) {
+        return copyWithStock(product, product.getStock());
+    }
+
+    static List<Product> copyAll(List<Product> products) {
+        List<Product> copies = new ArrayList<>(products.size());
+        for (Product product : products) {
+            copies.add(copy(product));
+        }
+        return copies;
+    }
+
+    private static Category copy(Category category) {
+        if (category == null) {
+            return null;
+        }
+        Category copy = new Category();
+        copy.setCategoryId(category.getCategoryId());
+        copy.setCategory(category.getCategory());
+        copy.setActive(category.getActive());
+        return copy;
+    }
+}
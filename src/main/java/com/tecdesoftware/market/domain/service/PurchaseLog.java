@@ -0,0 +1,269 @@
+package com.tecdesoftware.market.domain.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Log de escritura anticipada de las compras aceptadas en modo asíncrono. Los registros se agregan
+// al final de segmentos de tamaño fijo mapeados en memoria; awaitDurable espera el fsync, y el primer
+// hilo que lo pide fuerza a disco todo lo escrito hasta ese momento mientras los demás esperan y lo
+// aprovechan (group commit). El checkpoint guarda hasta qué secuencia ya está en la base; al abrir,
+// los registros posteriores se devuelven para volver a procesarlos.
+// No es un componente de Spring: lo crea y usa un único AsyncPurchaseService.
+final class PurchaseLog implements Closeable {
+
+    // Registro: largo del contenido, CRC32C de (secuencia + contenido), secuencia, contenido.
+    // Un largo 0 (archivo sin escribir) o un CRC que no coincide marcan el final del segmento.
+    private static final int HEADER = 4 + 4 + 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel checkpointChannel;
+    private final List<Entry> recovered = new ArrayList<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    // Segmentos ya cerrados que todavía tienen registros sin confirmar en la base
+    private final Deque<Segment> closed = new ArrayDeque<>();
+    private Segment current;
+    private long lastSeq;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long durableSeq;
+    private boolean syncing;
+
+    record Entry(long seq, byte[] payload) {
+    }
+
+    PurchaseLog(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long checkpoint = readCheckpoint();
+        this.lastSeq = checkpoint;
+
+        for (Path path : segmentFiles()) {
+            long segmentLastSeq = recover(path, checkpoint);
+            if (segmentLastSeq <= checkpoint) {
+                Files.delete(path);
+            } else {
+                closed.addLast(new Segment(path, null, segmentLastSeq));
+            }
+            lastSeq = Math.max(lastSeq, segmentLastSeq);
+        }
+        // Lo recuperado ya estaba en disco
+        this.durableSeq = lastSeq;
+    }
+
+    // Registros posteriores al checkpoint encontrados al abrir, en orden de secuencia
+    List<Entry> recovered() {
+        return recovered;
+    }
+
+    // Escribe el registro (todavía sin fsync) y devuelve su secuencia
+    long append(byte[] payload) {
+        int size = HEADER + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("El registro (" + size + " bytes) no entra en un segmento");
+        }
+        appendLock.lock();
+        try {
+            if (current == null || current.buffer.remaining() < size) {
+                roll();
+            }
+            long seq = ++lastSeq;
+            current.buffer.putInt(payload.length)
+                    .putInt(crc(seq, payload))
+                    .putLong(seq)
+                    .put(payload);
+            current.lastSeq = seq;
+            return seq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Espera a que el registro seq esté en disco, forzándolo si nadie lo está haciendo
+    void awaitDurable(long seq) {
+        syncLock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                syncLock.unlock();
+                long target = -1;
+                try {
+                    target = sync();
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    durableSeq = Math.max(durableSeq, target);
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Todo hasta seq ya está en la base: se guarda y se borran los segmentos que quedaron sin uso
+    void checkpoint(long seq) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(seq).putInt(crc(seq, new byte[0])).flip();
+        checkpointChannel.write(buffer, 0);
+        checkpointChannel.force(false);
+
+        List<Path> obsolete = new ArrayList<>();
+        appendLock.lock();
+        try {
+            while (!closed.isEmpty() && closed.peekFirst().lastSeq <= seq) {
+                obsolete.add(closed.removeFirst().path);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (current != null) {
+                current.buffer.force();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        checkpointChannel.close();
+    }
+
+    // Fuerza a disco el segmento actual y devuelve la última secuencia cubierta
+    private long sync() {
+        Segment segment;
+        long target;
+        appendLock.lock();
+        try {
+            segment = current;
+            target = lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        // Los segmentos anteriores se forzaron al cerrarlos
+        if (segment != null) {
+            segment.buffer.force();
+        }
+        return target;
+    }
+
+    // Se llama con appendLock
+    private void roll() {
+        if (current != null) {
+            current.buffer.force();
+            closed.addLast(new Segment(current.path, null, current.lastSeq));
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lastSeq + 1, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            current = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize), lastSeq);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo crear el segmento " + path, e);
+        }
+    }
+
+    // Lee un segmento, agrega a recovered lo posterior al checkpoint y devuelve la última secuencia válida
+    private long recover(Path path, long checkpoint) throws IOException {
+        long segmentLastSeq = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER) {
+                int length = buffer.getInt();
+                int crc = buffer.getInt();
+                long seq = buffer.getLong();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                // Registro a medio escribir cuando se cortó el proceso: ahí termina el segmento
+                if (crc != crc(seq, payload)) {
+                    break;
+                }
+                if (seq > checkpoint) {
+                    recovered.add(new Entry(seq, payload));
+                }
+                segmentLastSeq = seq;
+            }
+        }
+        return segmentLastSeq;
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        int read;
+        do {
+            read = checkpointChannel.read(buffer, buffer.position());
+        } while (read > 0 && buffer.hasRemaining());
+        // Sin checkpoint todavía (log nuevo)
+        if (buffer.hasRemaining()) {
+            return 0;
+        }
+        buffer.flip();
+        long seq = buffer.getLong();
+        // Un checkpoint dañado equivale a no tenerlo: se reprocesa todo lo que siga en el log
+        return buffer.getInt() == crc(seq, new byte[0]) ? seq : 0;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    // El nombre lleva la primera secuencia con ceros a la izquierda: orden alfabético = orden del log
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int crc(long seq, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(seq).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private long lastSeq;
+
+        private Segment(Path path, MappedByteBuffer buffer, long lastSeq) {
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSeq = lastSeq;
+        }
+    }
+}
@@ -1,27 +1,200 @@
 package com.tecdesoftware.market.domain.service;
 
+import com.tecdesoftware.market.domain.ClientSummary;
+import com.tecdesoftware.market.domain.Money;
 import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
+import com.tecdesoftware.market.domain.dto.PurchaseResult;
+import com.tecdesoftware.market.domain.exception.InsufficientStockException;
+import com.tecdesoftware.market.domain.exception.ProductNotFoundException;
+import com.tecdesoftware.market.domain.repository.ClientSummaryRepository;
 import com.tecdesoftware.market.domain.repository.PurchaseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 @Service
 public class PurchaseService {
 
+    // Máximo de compras aceptadas en una sola carga por lotes
+    public static final int MAX_BATCH_SIZE = 5000;
+    // Máximo de compras recientes / productos top que se devuelven en el resumen de un cliente
+    public static final int MAX_SUMMARY_ITEMS = 50;
+
     @Autowired
     private PurchaseRepository purchaseRepository;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ClientSummaryRepository clientSummaryRepository;
+
+    @Autowired
+    private RecentWrites recentWrites;
+
+    @Autowired
+    private SalesRollups salesRollups;
+
+    @Value("${market.purchases.client-summaries.rebuild-chunk-size:500}")
+    private int rebuildChunkSize;
+
     public List<Purchase> getAll(){
         return  purchaseRepository.getAll();
     };
 
+    // Justo después de comprar, el cliente ve su compra aunque las réplicas estén atrasadas
     public Optional<List<Purchase>> getByClient(String clientId){
-        return purchaseRepository.getByClient(clientId);
+        return recentWrites.read(RecentWrites.client(clientId), () -> purchaseRepository.getByClient(clientId));
     };
+
+    // Exportación para reportes: las filas se entregan a medida que se leen, sin juntarlas en memoria
+    public void export(LocalDateTime from, LocalDateTime to, Consumer<PurchaseLine> consumer) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al fin");
+        }
+        purchaseRepository.streamLines(from, to, consumer);
+    }
+
+    public Optional<ClientSummary> getClientSummary(String clientId, int recentPurchases, int topProducts) {
+        return recentWrites.read(RecentWrites.client(clientId), () -> clientSummaryRepository.getSummary(clientId,
+                Math.max(0, Math.min(recentPurchases, MAX_SUMMARY_ITEMS)),
+                Math.max(0, Math.min(topProducts, MAX_SUMMARY_ITEMS))));
+    }
+
+    // Recalcula todos los resúmenes desde el historial (carga inicial o corrección), un grupo de
+    // clientes por transacción: solo esperan las compras de los clientes del grupo en curso
+    public void rebuildClientSummaries() {
+        Optional<String> last = Optional.of("");
+        while (last.isPresent()) {
+            last = clientSummaryRepository.rebuild(last.get(), rebuildChunkSize);
+        }
+    }
+
+    // La compra y el descuento de stock se confirman o se revierten juntos
+    @Transactional
     public Purchase save(Purchase purchase){
-        return  purchaseRepository.save(purchase);
+        reserveStock(purchase);
+        priceItems(purchase);
+        Purchase saved = purchaseRepository.save(purchase);
+        clientSummaryRepository.addPurchase(saved);
+        recentWrites.record(RecentWrites.client(saved.getClientId()));
+        salesRollups.record(saved);
+        return saved;
     };
+
+    // Carga por lotes: se bloquean de una vez, en orden de id, los productos de todo el lote y cada compra
+    // se acepta si el stock todavía alcanza. El descuento es uno solo por producto (también en orden de id)
+    // y las aceptadas se insertan juntas con INSERT agrupados. Dos lotes con productos en común esperan
+    // uno al otro en lugar de trabarse, y las compras rechazadas no tocan el stock.
+    @Transactional
+    public List<PurchaseResult> saveAll(List<Purchase> purchases) {
+        if (purchases.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + MAX_BATCH_SIZE + " compras");
+        }
+
+        PurchaseResult[] results = new PurchaseResult[purchases.size()];
+        List<Map<Integer, Integer>> quantities = new ArrayList<>(purchases.size());
+        Set<Integer> productIds = new TreeSet<>();
+        for (int i = 0; i < purchases.size(); i++) {
+            try {
+                Map<Integer, Integer> purchaseQuantities = quantitiesOf(purchases.get(i));
+                productIds.addAll(purchaseQuantities.keySet());
+                quantities.add(purchaseQuantities);
+            } catch (IllegalArgumentException e) {
+                results[i] = PurchaseResult.rejected(i, e.getMessage());
+                quantities.add(null);
+            }
+        }
+
+        Map<Integer, Integer> available = productService.lockStock(productIds);
+        Map<Integer, Integer> reserved = new TreeMap<>();
+        List<Purchase> accepted = new ArrayList<>(purchases.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(purchases.size());
+
+        for (int i = 0; i < purchases.size(); i++) {
+            Map<Integer, Integer> purchaseQuantities = quantities.get(i);
+            if (purchaseQuantities == null) {
+                continue;
+            }
+            Purchase purchase = purchases.get(i);
+            try {
+                purchaseQuantities.forEach((productId, quantity) -> {
+                    Integer stock = available.get(productId);
+                    if (stock == null) {
+                        throw new ProductNotFoundException(productId);
+                    }
+                    if (stock - reserved.getOrDefault(productId, 0) < quantity) {
+                        throw new InsufficientStockException(productId, quantity);
+                    }
+                });
+                priceItems(purchase);
+                purchaseQuantities.forEach((productId, quantity) -> reserved.merge(productId, quantity, Integer::sum));
+                accepted.add(purchase);
+                acceptedIndexes.add(i);
+            } catch (InsufficientStockException | IllegalArgumentException e) {
+                results[i] = PurchaseResult.rejected(i, e.getMessage());
+            }
+        }
+
+        // Las filas están bloqueadas: el descuento condicional no puede fallar salvo un error de la base
+        reserved.forEach(productService::decreaseStock);
+
+        List<Purchase> saved = purchaseRepository.saveAll(accepted);
+        // Los resúmenes bloquean al cliente: en orden de cliente, igual que rebuild(), para no trabarse
+        saved.stream()
+                .sorted(Comparator.comparing(Purchase::getClientId))
+                .forEach(clientSummaryRepository::addPurchase);
+        saved.forEach(purchase -> recentWrites.record(RecentWrites.client(purchase.getClientId())));
+        saved.forEach(salesRollups::record);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = PurchaseResult.created(index, saved.get(i).getPurchaseId());
+        }
+        return List.of(results);
+    }
+
+    // Agrupa las cantidades por producto y descuenta en orden de id para evitar deadlocks
+    private void reserveStock(Purchase purchase) {
+        quantitiesOf(purchase).forEach(productService::decreaseStock);
+    }
+
+    // El total de cada ítem se calcula con el precio actual del producto; el enviado por el cliente se ignora
+    private void priceItems(Purchase purchase) {
+        if (purchase.getItems() == null) {
+            return;
+        }
+        for (PurchaseItem item : purchase.getItems()) {
+            Money price = productService.getProduct(item.getProductId())
+                    .map(product -> product.getPrice() != null ? product.getPrice() : Money.ZERO)
+                    .orElseThrow(() -> new ProductNotFoundException(item.getProductId()));
+            item.setTotal(price.times(item.getQuantity()));
+        }
+    }
+
+    private Map<Integer, Integer> quantitiesOf(Purchase purchase) {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        if (purchase.getItems() != null) {
+            for (PurchaseItem item : purchase.getItems()) {
+                if (item.getQuantity() <= 0) {
+                    throw new IllegalArgumentException("Cantidad inválida para el producto " + item.getProductId());
+                }
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
 }
@@ -0,0 +1,51 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tecdesoftware.market.config.ReplicaRouting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Lee-tus-escrituras con réplicas: durante unos segundos después de escribir (una compra de un
+// cliente, un cambio de stock o de un producto) las lecturas de eso mismo van al primario, porque las
+// réplicas pueden no tener todavía el cambio. Sin réplicas configuradas todo va al primario igual.
+// Las claves son lo más chicas posible: una compra marca solo sus productos, no el catálogo entero.
+@Component
+public class RecentWrites {
+
+    // Listado completo de productos: solo lo marcan las altas, bajas y modificaciones de productos
+    public static final String CATALOG = "catalog";
+
+    private final Cache<String, Boolean> keys;
+
+    public RecentWrites(@Value("${market.datasource.read-your-writes-ms:5000}") long windowMs,
+                        @Value("${market.datasource.read-your-writes-max-keys:100000}") long maxKeys) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .build();
+    }
+
+    public static String client(String clientId) {
+        return "client:" + clientId;
+    }
+
+    public static String product(int productId) {
+        return "product:" + productId;
+    }
+
+    public static String category(int categoryId) {
+        return "category:" + categoryId;
+    }
+
+    public void record(String key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    public <T> T read(String key, Supplier<T> reader) {
+        return keys.getIfPresent(key) != null ? ReplicaRouting.onPrimary(reader) : reader.get();
+    }
+}
@@ -0,0 +1,125 @@
+package com.tecdesoftware.market.domain.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Refresh tokens opacos guardados en memoria. Solo se guarda el SHA-256 del token (no el token),
+// cada uno se usa una sola vez (rotación) y los vencidos se barren periódicamente. Cada usuario
+// tiene como mucho maxPerUser tokens vigentes: al emitir uno más se descarta el más viejo, así
+// loguearse en loop no hace crecer el mapa hasta el próximo barrido.
+@Component
+public class RefreshTokenStore {
+
+    private final SecureRandom random = new SecureRandom();
+    // Hash del token -> dueño y vencimiento
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    // Correo -> hashes de sus tokens, del más viejo al más nuevo; se modifica con compute del correo
+    private final Map<String, Deque<String>> byUser = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private final int maxPerUser;
+
+    public RefreshTokenStore(MeterRegistry meterRegistry,
+                             @Value("${market.auth.refresh-token.ttl-hours:168}") long ttlHours,
+                             @Value("${market.auth.refresh-token.max-per-user:10}") int maxPerUser) {
+        this.ttlMs = ttlHours * 60 * 60 * 1000;
+        this.maxPerUser = maxPerUser;
+        Gauge.builder("auth.refresh_tokens.active", this, RefreshTokenStore::size)
+                .description("Refresh tokens guardados en memoria")
+                .register(meterRegistry);
+    }
+
+    public String issue(String correo) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String key = hash(token);
+        Entry entry = new Entry(correo, System.currentTimeMillis() + ttlMs);
+        byUser.compute(correo, (user, keys) -> {
+            Deque<String> active = keys != null ? keys : new ArrayDeque<>();
+            tokens.put(key, entry);
+            active.addLast(key);
+            while (active.size() > maxPerUser) {
+                tokens.remove(active.removeFirst());
+            }
+            return active;
+        });
+        return token;
+    }
+
+    // Consume el token: devuelve el correo si era válido y lo invalida para que no se reutilice
+    public Optional<String> consume(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String key = hash(token);
+        Entry entry = tokens.remove(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        forget(entry.correo(), key);
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.correo());
+    }
+
+    public void revoke(String token) {
+        consume(token);
+    }
+
+    // Cierra todas las sesiones de un usuario
+    public void revokeAll(String correo) {
+        byUser.computeIfPresent(correo, (user, keys) -> {
+            keys.forEach(tokens::remove);
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${market.auth.refresh-token.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        tokens.forEach((key, entry) -> {
+            if (entry.expiresAt() <= now && tokens.remove(key, entry)) {
+                forget(entry.correo(), key);
+            }
+        });
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private void forget(String correo, String key) {
+        byUser.computeIfPresent(correo, (user, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 siempre está disponible en la JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(String correo, long expiresAt) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.tecdesoftware.market.domain.service;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Tabla columnar de agregados: cada fila es una combinación de dimensiones (int) con sus medidas
+// (long) ya sumadas. Las columnas son arreglos primitivos en bloques de CHUNK filas, así agregar
+// filas no copia lo existente y un recorrido lee memoria contigua.
+// Los escritores se serializan entre sí; las lecturas no toman lock y pueden no ver todavía las
+// últimas sumas (para tableros alcanza), pero nunca ven una fila a medio crear.
+final class RollupTable {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK = 1 << CHUNK_BITS;
+
+    // Sumas de un grupo; el arreglo se reutiliza entre llamadas
+    interface GroupConsumer {
+        void accept(int group, long[] sums);
+    }
+
+    private final int dimensions;
+    private final int measures;
+    // Clave de la fila -> número de fila; solo lo usan los escritores
+    private LongHashTable index;
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+
+    RollupTable(int dimensions, int measures, int expectedRows) {
+        this.dimensions = dimensions;
+        this.measures = measures;
+        this.index = new LongHashTable(expectedRows, 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Suma deltas a la fila de la clave (distinta de 0); si no existe se crea con esos valores de dimensión
+    synchronized void add(long key, int[] dimensionValues, long[] deltas) {
+        int slot = index.find(key);
+        int row = slot >= 0 ? (int) index.get(slot, 0) : size;
+        boolean created = slot < 0;
+
+        Chunk[] current = chunks;
+        if (created && row >> CHUNK_BITS == current.length) {
+            current = Arrays.copyOf(current, current.length + 1);
+            current[current.length - 1] = new Chunk(dimensions, measures);
+            chunks = current;
+        }
+        Chunk chunk = current[row >> CHUNK_BITS];
+        int offset = row & (CHUNK - 1);
+        if (created) {
+            for (int d = 0; d < dimensions; d++) {
+                chunk.dimensions[d][offset] = dimensionValues[d];
+            }
+            slot = index.insert(key);
+            if (slot < 0) {
+                index = index.grow();
+                slot = index.insert(key);
+            }
+            index.set(slot, 0, row);
+        }
+        for (int m = 0; m < measures; m++) {
+            chunk.measures[m][offset] += deltas[m];
+        }
+        if (created) {
+            // Se publica la fila recién con todos sus valores escritos
+            size = row + 1;
+        }
+    }
+
+    // Suma las medidas agrupando por groupDimension, solo en las filas con filterDimension entre min y
+    // max (inclusive). Los bloques se reparten en hasta parallelism tareas y los parciales se juntan al final.
+    void aggregate(int groupDimension, int filterDimension, int min, int max, int parallelism,
+                   GroupConsumer consumer) {
+        // size antes que chunks: el arreglo leído siempre incluye el bloque de la última fila
+        int rows = size;
+        Chunk[] snapshot = chunks;
+        int chunkCount = (rows + CHUNK - 1) >> CHUNK_BITS;
+        int tasks = Math.max(1, Math.min(parallelism, chunkCount));
+
+        LongHashTable[] partials = new LongHashTable[tasks];
+        IntStream taskIds = IntStream.range(0, tasks);
+        (tasks > 1 ? taskIds.parallel() : taskIds).forEach(task -> partials[task] = scan(snapshot, rows,
+                (int) ((long) chunkCount * task / tasks), (int) ((long) chunkCount * (task + 1) / tasks),
+                groupDimension, filterDimension, min, max));
+
+        LongHashTable result = partials[0];
+        for (int task = 1; task < tasks; task++) {
+            result = merge(result, partials[task]);
+        }
+        long[] sums = new long[measures];
+        for (int slot = 0; slot < result.capacity(); slot++) {
+            long key = result.keyAt(slot);
+            if (key != 0) {
+                for (int m = 0; m < measures; m++) {
+                    sums[m] = result.get(slot, m);
+                }
+                consumer.accept(group(key), sums);
+            }
+        }
+    }
+
+    private LongHashTable scan(Chunk[] snapshot, int rows, int fromChunk, int toChunk,
+                               int groupDimension, int filterDimension, int min, int max) {
+        LongHashTable groups = new LongHashTable(1024, measures);
+        for (int c = fromChunk; c < toChunk; c++) {
+            Chunk chunk = snapshot[c];
+            int[] group = chunk.dimensions[groupDimension];
+            int[] filter = chunk.dimensions[filterDimension];
+            long[][] values = chunk.measures;
+            int chunkRows = Math.min(CHUNK, rows - (c << CHUNK_BITS));
+            for (int row = 0; row < chunkRows; row++) {
+                int value = filter[row];
+                if (value < min || value > max) {
+                    continue;
+                }
+                long key = key(group[row]);
+                int slot = groups.insert(key);
+                if (slot < 0) {
+                    groups = groups.grow();
+                    slot = groups.insert(key);
+                }
+                for (int m = 0; m < measures; m++) {
+                    groups.set(slot, m, groups.get(slot, m) + values[m][row]);
+                }
+            }
+        }
+        return groups;
+    }
+
+    private LongHashTable merge(LongHashTable target, LongHashTable source) {
+        for (int from = 0; from < source.capacity(); from++) {
+            long key = source.keyAt(from);
+            if (key == 0) {
+                continue;
+            }
+            int slot = target.insert(key);
+            if (slot < 0) {
+                target = target.grow();
+                slot = target.insert(key);
+            }
+            for (int m = 0; m < measures; m++) {
+                target.set(slot, m, target.get(slot, m) + source.get(from, m));
+            }
+        }
+        return target;
+    }
+
+    // La clave 0 está reservada en LongHashTable: se corre el valor del grupo en uno
+    private static long key(int group) {
+        return (group & 0xFFFFFFFFL) + 1;
+    }
+
+    private static int group(long key) {
+        return (int) (key - 1);
+    }
+
+    private static final class Chunk {
+        private final int[][] dimensions;
+        private final long[][] measures;
+
+        private Chunk(int dimensions, int measures) {
+            this.dimensions = new int[dimensions][CHUNK];
+            this.measures = new long[measures][CHUNK];
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.BasketSize;
+import com.tecdesoftware.market.domain.dto.BasketStats;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
+import com.tecdesoftware.market.domain.dto.SalesGroup;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+// Agregados de ventas en memoria para los tableros: una tabla columnar por (día, producto, medio de
+// pago) y otra por (día, medio de pago, ítems por compra). Se cargan del historial al arrancar y después
+// se actualizan con cada compra confirmada, así las consultas no recorren compras ni compras_productos.
+@Component
+public class SalesRollups {
+
+    public static final String BY_CATEGORY = "category";
+    public static final String BY_DAY = "day";
+    public static final String BY_PAYMENT_METHOD = "paymentMethod";
+    // Las compras con más ítems se cuentan juntas en este tamaño
+    public static final int MAX_BASKET_ITEMS = 100;
+
+    // Tabla de ventas: dimensiones y medidas
+    private static final int DAY = 0;
+    private static final int PRODUCT = 1;
+    private static final int CATEGORY = 2;
+    private static final int METHOD = 3;
+    private static final int UNITS = 0;
+    private static final int REVENUE = 1;
+    private static final int LINES = 2;
+
+    // Tabla de compras
+    private static final int BASKET_DAY = 0;
+    private static final int BASKET_METHOD = 1;
+    private static final int BASKET_ITEMS = 2;
+    private static final int PURCHASES = 0;
+    private static final int BASKET_UNITS = 1;
+    private static final int BASKET_REVENUE = 2;
+
+    // El medio de pago ocupa 10 bits de la clave
+    private static final int MAX_METHODS = 1 << 10;
+    private static final String OTHER_METHODS = "(otros)";
+
+    private static final LocalDateTime HISTORY_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_TO = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final RollupTable sales;
+    private final RollupTable baskets;
+    private final int parallelism;
+    // Medio de pago -> código (dimensión METHOD) y al revés
+    private final Map<String, Integer> methodCodes = new ConcurrentHashMap<>();
+    private volatile String[] methodLabels = new String[0];
+
+    // Compras confirmadas mientras se carga el historial: se aplican al terminar
+    private final Object loadLock = new Object();
+    private final List<Purchase> pendingDuringLoad = new ArrayList<>();
+    private final Set<Integer> pendingIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    public SalesRollups(@Value("${market.analytics.parallelism:0}") int parallelism,
+                        @Value("${market.analytics.expected-rows:1000000}") int expectedRows) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.sales = new RollupTable(4, 3, expectedRows);
+        this.baskets = new RollupTable(3, 3, 4096);
+    }
+
+    // Carga desde el historial; con réplicas configuradas la lectura va a una réplica
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ProductCategories categories = new ProductCategories();
+        productRepository.streamAll(product -> categories.put(product.getProductId(), product.getCategoryId()));
+
+        HistoryLoader loader = new HistoryLoader(categories);
+        purchaseRepository.streamLines(HISTORY_FROM, HISTORY_TO, loader);
+        loader.flush();
+
+        synchronized (loadLock) {
+            pendingDuringLoad.forEach(this::add);
+            pendingDuringLoad.clear();
+            pendingIds.clear();
+            ready = true;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Se aplica recién después del commit, igual que los cambios de stock en los índices de productos
+    public void record(Purchase purchase) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(purchase);
+                }
+            });
+        } else {
+            apply(purchase);
+        }
+    }
+
+    // Ventas por categoría, día o medio de pago entre dos fechas (inclusive). Por día salen en orden
+    // cronológico; el resto, de mayor a menor monto.
+    public List<SalesGroup> salesBy(String dimension, LocalDate from, LocalDate to) {
+        int groupDimension = switch (dimension) {
+            case BY_CATEGORY -> CATEGORY;
+            case BY_DAY -> DAY;
+            case BY_PAYMENT_METHOD -> METHOD;
+            default -> throw new IllegalArgumentException("Agrupación no soportada: " + dimension);
+        };
+        List<SalesGroup> groups = new ArrayList<>();
+        sales.aggregate(groupDimension, DAY, day(from), day(to), parallelism, (group, sums) ->
+                groups.add(new SalesGroup(label(groupDimension, group), sums[UNITS], Money.ofMinor(sums[REVENUE]), sums[LINES])));
+        groups.sort(groupDimension == DAY
+                ? Comparator.comparing(SalesGroup::getKey)
+                : Comparator.comparing(SalesGroup::getRevenue).reversed());
+        return groups;
+    }
+
+    // Los limit productos más vendidos por unidades o por monto; solo se crean objetos para los que entran
+    public List<SalesGroup> topProducts(LocalDate from, LocalDate to, int limit, boolean byUnits) {
+        ToLongFunction<SalesGroup> metric = byUnits ? SalesGroup::getUnits : group -> group.getRevenue().getMinorUnits();
+        int measure = byUnits ? UNITS : REVENUE;
+        PriorityQueue<SalesGroup> top = new PriorityQueue<>(limit + 1, Comparator.comparingLong(metric));
+        sales.aggregate(PRODUCT, DAY, day(from), day(to), parallelism, (product, sums) -> {
+            if (top.size() == limit && sums[measure] <= metric.applyAsLong(top.peek())) {
+                return;
+            }
+            top.add(new SalesGroup(Integer.toString(product), sums[UNITS], Money.ofMinor(sums[REVENUE]), sums[LINES]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<SalesGroup> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(metric).reversed());
+        return result;
+    }
+
+    public BasketStats baskets(LocalDate from, LocalDate to) {
+        List<BasketSize> sizes = new ArrayList<>();
+        long[] totals = new long[4];
+        baskets.aggregate(BASKET_ITEMS, BASKET_DAY, day(from), day(to), parallelism, (items, sums) -> {
+            sizes.add(new BasketSize(items, sums[PURCHASES], Money.ofMinor(sums[BASKET_REVENUE])));
+            totals[0] += sums[PURCHASES];
+            totals[1] += items * sums[PURCHASES];
+            totals[2] += sums[BASKET_UNITS];
+            totals[3] += sums[BASKET_REVENUE];
+        });
+        sizes.sort(Comparator.comparingInt(BasketSize::getItems));
+        long purchases = totals[0];
+        if (purchases == 0) {
+            return new BasketStats(0, 0, 0, Money.ZERO, sizes);
+        }
+        return new BasketStats(purchases, (double) totals[1] / purchases, (double) totals[2] / purchases,
+                Money.ofMinor(Math.round((double) totals[3] / purchases)), sizes);
+    }
+
+    // Un ítem vendido
+    void addLine(int day, int productId, int categoryId, int method, int quantity, long totalCents) {
+        long key = ((long) productId << 32) | ((long) (day + 1) << 10) | method;
+        sales.add(key, new int[]{day, productId, categoryId, method}, new long[]{quantity, totalCents, 1});
+    }
+
+    // Una compra completa (para los tamaños de canasta)
+    void addBasket(int day, int method, int items, long units, long totalCents) {
+        int size = Math.min(items, MAX_BASKET_ITEMS);
+        long key = ((long) (day + 1) << 20) | ((long) method << 8) | size;
+        baskets.add(key, new int[]{day, method, size}, new long[]{1, units, totalCents});
+    }
+
+    int methodCode(String paymentMethod) {
+        String method = paymentMethod != null ? paymentMethod : "";
+        Integer code = methodCodes.get(method);
+        return code != null ? code : newMethodCode(method);
+    }
+
+    private synchronized int newMethodCode(String method) {
+        Integer code = methodCodes.get(method);
+        if (code != null) {
+            return code;
+        }
+        // Con demasiados medios de pago distintos, los nuevos comparten el último código
+        if (methodLabels.length == MAX_METHODS - 1) {
+            methodLabels = Arrays.copyOf(methodLabels, MAX_METHODS);
+            methodLabels[MAX_METHODS - 1] = OTHER_METHODS;
+        }
+        if (methodLabels.length == MAX_METHODS) {
+            methodCodes.put(method, MAX_METHODS - 1);
+            return MAX_METHODS - 1;
+        }
+        String[] labels = Arrays.copyOf(methodLabels, methodLabels.length + 1);
+        labels[labels.length - 1] = method;
+        methodLabels = labels;
+        methodCodes.put(method, labels.length - 1);
+        return labels.length - 1;
+    }
+
+    private void apply(Purchase purchase) {
+        synchronized (loadLock) {
+            if (!ready) {
+                pendingIds.add(purchase.getPurchaseId());
+                pendingDuringLoad.add(purchase);
+                return;
+            }
+        }
+        add(purchase);
+    }
+
+    private void add(Purchase purchase) {
+        int day = day(purchase.getDate() != null ? purchase.getDate().toLocalDate() : LocalDate.now());
+        int method = methodCode(purchase.getPaymentMethod());
+        int items = 0;
+        long units = 0;
+        long total = 0;
+        if (purchase.getItems() != null) {
+            for (PurchaseItem item : purchase.getItems()) {
+                long cents = item.getTotal() != null ? item.getTotal().getMinorUnits() : 0;
+                int category = productService.getProduct(item.getProductId()).map(Product::getCategoryId).orElse(0);
+                addLine(day, item.getProductId(), category, method, item.getQuantity(), cents);
+                items++;
+                units += item.getQuantity();
+                total += cents;
+            }
+        }
+        addBasket(day, method, items, units, total);
+    }
+
+    private String label(int dimension, int value) {
+        return switch (dimension) {
+            case DAY -> LocalDate.ofEpochDay(value).toString();
+            case METHOD -> methodLabels[value];
+            default -> Integer.toString(value);
+        };
+    }
+
+    private static int day(LocalDate date) {
+        return (int) Math.max(0, date.toEpochDay());
+    }
+
+    // Recorre el historial (filas ordenadas por compra) y arma también el total de cada compra
+    private final class HistoryLoader implements Consumer<PurchaseLine> {
+        private final ProductCategories categories;
+        private int purchaseId = -1;
+        private int day;
+        private int method;
+        private int items;
+        private long units;
+        private long total;
+
+        private HistoryLoader(ProductCategories categories) {
+            this.categories = categories;
+        }
+
+        @Override
+        public void accept(PurchaseLine line) {
+            // Se confirmó mientras se cargaba: la aplica load() al terminar
+            if (pendingIds.contains(line.getPurchaseId())) {
+                return;
+            }
+            if (line.getPurchaseId() != purchaseId) {
+                flush();
+                purchaseId = line.getPurchaseId();
+                day = day(line.getDate() != null ? line.getDate().toLocalDate() : LocalDate.now());
+                method = methodCode(line.getPaymentMethod());
+            }
+            if (line.getProductId() == null) {
+                return;
+            }
+            int quantity = line.getQuantity() != null ? line.getQuantity() : 0;
+            long cents = line.getTotal() != null ? line.getTotal().getMinorUnits() : 0;
+            addLine(day, line.getProductId(), categories.get(line.getProductId()), method, quantity, cents);
+            items++;
+            units += quantity;
+            total += cents;
+        }
+
+        private void flush() {
+            if (purchaseId >= 0) {
+                addBasket(day, method, items, units, total);
+            }
+            purchaseId = -1;
+            items = 0;
+            units = 0;
+            total = 0;
+        }
+    }
+
+    // Categoría de cada producto indexada por id (los ids son correlativos)
+    private static final class ProductCategories {
+        private int[] categories = new int[1024];
+        private final Map<Integer, Integer> sparse = new HashMap<>();
+
+        private void put(int productId, int categoryId) {
+            if (productId >= 0 && productId < 16 * 1024 * 1024) {
+                if (productId >= categories.length) {
+                    categories = Arrays.copyOf(categories, Math.max(productId + 1, categories.length * 2));
+                }
+                categories[productId] = categoryId;
+            } else {
+                sparse.put(productId, categoryId);
+            }
+        }
+
+        private int get(int productId) {
+            if (productId >= 0 && productId < categories.length) {
+                return categories[productId];
+            }
+            return sparse.getOrDefault(productId, 0);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.dto.StockAlert;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Índice en memoria de productos activos ordenados por stock. Se carga al arrancar y se
+// actualiza con cada cambio de producto o de stock, así "stock < N" es una búsqueda por rango.
+@Component
+public class ScarceProductIndex {
+
+    // Clave: stock en los 32 bits altos e id de producto en los bajos (orden por stock, luego id)
+    private final ConcurrentSkipListMap<Long, Product> byStock = new ConcurrentSkipListMap<>();
+    // Último estado indexado de cada producto; solo se modifica con el lock del índice
+    private final Map<Integer, Product> byId = new HashMap<>();
+    private final ProductIndexLoad startup = new ProductIndexLoad();
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${market.stock.alert-threshold:10}")
+    private int alertThreshold;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // Se carga desde el primario, que es lo que después mantienen al día los cambios
+        startup.run(productRepository, this::index, this::unindex);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<Product> getScarce(int quantity) {
+        return new ArrayList<>(byStock.headMap(key(quantity, 0)).values());
+    }
+
+    public void put(Product product) {
+        if (!startup.defer(product.getProductId())) {
+            index(product);
+        }
+    }
+
+    public void remove(int productId) {
+        if (!startup.defer(productId)) {
+            unindex(productId);
+        }
+    }
+
+    // Aplica una variación de stock ya confirmada en la base de datos
+    public void adjustStock(int productId, int delta) {
+        if (startup.defer(productId)) {
+            return;
+        }
+        StockAlert alert;
+        synchronized (this) {
+            Product previous = removeIndexed(productId);
+            if (previous == null) {
+                return;
+            }
+            Product updated = Products.copyWithStock(previous, previous.getStock() + delta);
+            byId.put(productId, updated);
+            byStock.put(key(updated.getStock(), productId), updated);
+            alert = crossing(previous, updated);
+        }
+        publish(alert);
+    }
+
+    private void index(Product product) {
+        StockAlert alert;
+        synchronized (this) {
+            Product previous = removeIndexed(product.getProductId());
+            if (product.isActive()) {
+                byId.put(product.getProductId(), product);
+                byStock.put(key(product.getStock(), product.getProductId()), product);
+            }
+            alert = crossing(previous, product.isActive() ? product : null);
+        }
+        publish(alert);
+    }
+
+    private void unindex(int productId) {
+        synchronized (this) {
+            removeIndexed(productId);
+        }
+    }
+
+    private Product removeIndexed(int productId) {
+        Product previous = byId.remove(productId);
+        if (previous != null) {
+            byStock.remove(key(previous.getStock(), productId));
+        }
+        return previous;
+    }
+
+    // Devuelve un aviso solo si el producto pasó de un lado al otro del umbral
+    private StockAlert crossing(Product previous, Product current) {
+        boolean wasScarce = previous != null && previous.getStock() < alertThreshold;
+        boolean isScarce = current != null && current.getStock() < alertThreshold;
+        if (current == null || wasScarce == isScarce) {
+            return null;
+        }
+        return new StockAlert(current.getProductId(), current.getName(), current.getStock(), alertThreshold, isScarce);
+    }
+
+    private void publish(StockAlert alert) {
+        if (alert != null) {
+            eventPublisher.publishEvent(alert);
+        }
+    }
+
+    private static long key(int stock, int productId) {
+        return ((long) stock << 32) | (productId & 0xFFFFFFFFL);
+    }
+}
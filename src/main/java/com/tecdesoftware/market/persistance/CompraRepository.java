@@ -1,40 +1,138 @@
 package com.tecdesoftware.market.persistance;
 
+import com.tecdesoftware.market.domain.Money;
 import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
 import com.tecdesoftware.market.domain.repository.PurchaseRepository;
 import com.tecdesoftware.market.persistance.crud.CompraCrudRepository;
 import com.tecdesoftware.market.persistance.entity.Compra;
 import com.tecdesoftware.market.persistance.mapper.PurchaseMapper;
+import com.tecdesoftware.market.persistance.projection.CompraLineaVista;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class CompraRepository implements PurchaseRepository {
 
+    // Exportación: JDBC directo para no cargar entidades en el contexto de persistencia
+    private static final String EXPORT_SQL = """
+            SELECT c.id_compra, c.id_cliente, c.fecha, c.medio_pago, c.comentario, c.estado,
+                   p.id_producto, p.cantidad, p.total, p.estado AS estado_producto
+            FROM compras c
+            LEFT JOIN compras_productos p ON p.id_compra = c.id_compra
+            WHERE c.fecha >= ? AND c.fecha < ?
+            ORDER BY c.fecha, c.id_compra, p.id_producto
+            """;
+
     @Autowired
     private CompraCrudRepository compraCrudRepository;
     @Autowired
     private PurchaseMapper mapper;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
+    // Igual a hibernate.jdbc.batch_size: cada cuántas compras se envía el lote y se limpia el contexto
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    // Filas que trae el driver por cada ida a la base durante la exportación
+    @Value("${market.purchases.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Purchase> getAll() {
-        return mapper.toPurchases((List<Compra>)compraCrudRepository.findAll());
+        return CompraLineaVista.toPurchases(compraCrudRepository.findAllLineas());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<List<Purchase>> getByClient(String clientId) {
-        return compraCrudRepository.findByIdCliente(clientId)
-                .map(compras -> mapper.toPurchases(compras));
+        return Optional.of(CompraLineaVista.toPurchases(compraCrudRepository.findLineasByIdCliente(clientId)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Purchase> getByIdempotencyKey(String clientId, String idempotencyKey) {
+        return compraCrudRepository.findByIdClienteAndClaveIdempotencia(clientId, idempotencyKey)
+                .map(mapper::toPurchase);
     }
 
     @Override
     public Purchase save(Purchase purchase) {
+        return mapper.toPurchase(compraCrudRepository.save(toCompra(purchase)));
+    }
+
+    @Override
+    @Transactional
+    public List<Purchase> saveAll(List<Purchase> purchases) {
+        List<Purchase> saved = new ArrayList<>(purchases.size());
+        for (int i = 0; i < purchases.size(); i++) {
+            Compra compra = toCompra(purchases.get(i));
+            entityManager.persist(compra);
+            saved.add(mapper.toPurchase(compra));
+
+            // Envía el lote y libera las entidades para que el contexto no crezca con el tamaño del lote
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return saved;
+    }
+
+    // La transacción de solo lectura hace falta para que PostgreSQL respete el fetch size (con autocommit
+    // trae todo el resultado de una vez) y permite que la lectura vaya a una réplica
+    @Override
+    @Transactional(readOnly = true)
+    public void streamLines(LocalDateTime from, LocalDateTime to, Consumer<PurchaseLine> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp fecha = rs.getTimestamp("fecha");
+            BigDecimal total = rs.getBigDecimal("total");
+            consumer.accept(new PurchaseLine(
+                    rs.getInt("id_compra"),
+                    rs.getString("id_cliente"),
+                    fecha != null ? fecha.toLocalDateTime() : null,
+                    rs.getString("medio_pago"),
+                    rs.getString("comentario"),
+                    rs.getString("estado"),
+                    rs.getObject("id_producto", Integer.class),
+                    rs.getObject("cantidad", Integer.class),
+                    total != null ? Money.of(total) : null,
+                    rs.getObject("estado_producto", Boolean.class)));
+        });
+    }
+
+    private Compra toCompra(Purchase purchase) {
         Compra compra = mapper.toCompra(purchase);
         compra.getProductos().forEach(producto -> producto.setCompra(compra));
-        return mapper.toPurchase(compraCrudRepository.save(compra));
+        return compra;
     }
 }
@@ -5,37 +5,65 @@ import com.tecdesoftware.market.domain.repository.ProductRepository;
 import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
 import com.tecdesoftware.market.persistance.entity.Producto;
 import com.tecdesoftware.market.persistance.mapper.ProductMapper;
+import com.tecdesoftware.market.persistance.projection.ProductoVista;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class ProductoRepository implements ProductRepository {
 
+    // Máximo de ids en el IN de lockStock
+    private static final int LOCK_CHUNK = 1000;
+
     @Autowired
     private ProductoCrudRepository productoCrudRepository;
 
     @Autowired
     private ProductMapper productMapper;
 
+    // Los listados usan proyecciones (ProductoVista): el mapper queda para altas, cambios y búsquedas por id
     @Override
+    @Transactional(readOnly = true)
     public List<Product> getAll() {
-        List<Producto> productos = (List<Producto>) productoCrudRepository.findAll();
-        return productMapper.toProducts(productos);
+        return toProducts(productoCrudRepository.findAllVistas());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Product> getPage(int afterId, int size) {
+        return toProducts(productoCrudRepository.findVistasAfter(afterId, Limit.of(size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Product> consumer) {
+        // Sin entidades no hay nada que sacar del contexto de persistencia mientras se recorre
+        try (Stream<ProductoVista> productos = productoCrudRepository.streamAllVistas()) {
+            productos.forEach(producto -> consumer.accept(producto.toProduct()));
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<List<Product>> getByCategory(int categoryId) {
-        List<Producto> productos = productoCrudRepository.findByIdCategoriaOrderByNombreAsc(categoryId);
-        return Optional.of(productMapper.toProducts(productos));
+        return Optional.of(toProducts(productoCrudRepository.findVistasByIdCategoria(categoryId)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<List<Product>> getScarceProducts(int quantity) {
-        Optional<List<Producto>> productos = productoCrudRepository.findByCantidadStockLessThanAndEstado(quantity, true);
-        return productos.map(productMapper::toProducts);
+        return Optional.of(toProducts(productoCrudRepository.findVistasEscasas(quantity)));
     }
 
     @Override
@@ -44,14 +72,48 @@ public class ProductoRepository implements ProductRepository {
                 .map(productMapper::toProduct);
     }
 
+    @Override
+    public Optional<Product> getByBarcode(String barcode) {
+        return productoCrudRepository.findFirstByCodigoBarrasAndEstado(barcode, true)
+                .map(productMapper::toProduct);
+    }
+
     @Override
     public Product save(Product product) {
         Producto producto = productMapper.toProducto(product);
         return productMapper.toProduct(productoCrudRepository.save(producto));
     }
 
+    @Override
+    @Transactional
+    public boolean decreaseStock(int productId, int quantity) {
+        return productoCrudRepository.decreaseStock(productId, quantity) == 1;
+    }
+
+    @Override
+    @Transactional
+    public Map<Integer, Integer> lockStock(Collection<Integer> productIds) {
+        Map<Integer, Integer> stock = new HashMap<>();
+        List<Integer> ids = productIds.stream().sorted().toList();
+        // De a LOCK_CHUNK ids por consulta; los bloques siguen el orden ascendente
+        for (int from = 0; from < ids.size(); from += LOCK_CHUNK) {
+            for (Object[] row : productoCrudRepository.lockStock(ids.subList(from, Math.min(ids.size(), from + LOCK_CHUNK)))) {
+                stock.put(((Number) row[0]).intValue(), row[1] != null ? ((Number) row[1]).intValue() : 0);
+            }
+        }
+        return stock;
+    }
+
     @Override
     public void delete(int productId) {
         productoCrudRepository.deleteById(productId);
     }
+
+    private static List<Product> toProducts(List<ProductoVista> productos) {
+        List<Product> products = new ArrayList<>(productos.size());
+        for (ProductoVista producto : productos) {
+            products.add(producto.toProduct());
+        }
+        return products;
+    }
 }
@@ -0,0 +1,125 @@
+package com.tecdesoftware.market.persistance;
+
+import com.tecdesoftware.market.domain.ClientSummary;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.repository.ClientSummaryRepository;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.CompraCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ResumenClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ResumenClienteProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.ResumenCliente;
+import com.tecdesoftware.market.persistance.entity.ResumenClienteProducto;
+import com.tecdesoftware.market.persistance.entity.ResumenClienteProductoPK;
+import com.tecdesoftware.market.persistance.mapper.ClientSummaryMapper;
+import com.tecdesoftware.market.persistance.mapper.PurchaseMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Repository
+public class ResumenClienteRepository implements ClientSummaryRepository {
+
+    @Autowired
+    private ResumenClienteCrudRepository resumenClienteCrudRepository;
+    @Autowired
+    private ResumenClienteProductoCrudRepository resumenClienteProductoCrudRepository;
+    @Autowired
+    private CompraCrudRepository compraCrudRepository;
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+    @Autowired
+    private ClientSummaryMapper mapper;
+    @Autowired
+    private PurchaseMapper purchaseMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ClientSummary> getSummary(String clientId, int recentPurchases, int topProducts) {
+        return resumenClienteCrudRepository.findById(clientId).map(resumen -> {
+            ClientSummary summary = mapper.toClientSummary(resumen);
+
+            List<Integer> recentIds = compraCrudRepository.findRecentIds(clientId, Limit.of(recentPurchases));
+            summary.setRecentPurchases(recentIds.isEmpty() ? List.of()
+                    : purchaseMapper.toPurchases(compraCrudRepository.findByIdCompraInOrderByFechaDescIdCompraDesc(recentIds)));
+            summary.setTopProducts(mapper.toTopProducts(
+                    resumenClienteProductoCrudRepository.findByIdIdClienteOrderByCantidadDesc(clientId, Limit.of(topProducts))));
+            return summary;
+        });
+    }
+
+    @Override
+    @Transactional
+    public void addPurchase(Purchase purchase) {
+        String clientId = purchase.getClientId();
+        List<PurchaseItem> items = purchase.getItems() != null ? purchase.getItems() : List.of();
+        long totalMinor = 0;
+        for (PurchaseItem item : items) {
+            totalMinor = Math.addExact(totalMinor, item.getTotal().getMinorUnits());
+        }
+        Money total = Money.ofMinor(totalMinor);
+        BigDecimal totalAmount = total.toBigDecimal();
+
+        // Se bloquea el cliente antes de tocar sus resúmenes: así dos compras simultáneas no insertan
+        // el mismo resumen dos veces y rebuild() no corre mientras la compra está sin confirmar.
+        // Las compras del mismo cliente ya se serializaban en la fila del resumen.
+        clienteCrudRepository.lockById(clientId);
+        if (resumenClienteCrudRepository.addPurchase(clientId, totalAmount, purchase.getDate()) == 0) {
+            ResumenCliente resumen = new ResumenCliente();
+            resumen.setIdCliente(clientId);
+            resumen.setTotalGastado(total);
+            resumen.setCantidadCompras(1);
+            resumen.setUltimaCompra(purchase.getDate());
+            resumenClienteCrudRepository.save(resumen);
+        }
+
+        // Ordenado por producto, igual que la reserva de stock, para no bloquear filas en distinto orden
+        Map<Integer, PurchaseItem> byProduct = new TreeMap<>();
+        for (PurchaseItem item : items) {
+            byProduct.merge(item.getProductId(), item, (a, b) -> {
+                PurchaseItem merged = new PurchaseItem();
+                merged.setProductId(a.getProductId());
+                merged.setQuantity(a.getQuantity() + b.getQuantity());
+                merged.setTotal(a.getTotal().plus(b.getTotal()));
+                return merged;
+            });
+        }
+        byProduct.forEach((productId, item) -> {
+            BigDecimal itemTotal = item.getTotal().toBigDecimal();
+            if (resumenClienteProductoCrudRepository.addItem(clientId, productId, item.getQuantity(), itemTotal) == 0) {
+                ResumenClienteProducto producto = new ResumenClienteProducto();
+                producto.setId(new ResumenClienteProductoPK(clientId, productId));
+                producto.setCantidad(item.getQuantity());
+                producto.setTotal(item.getTotal());
+                resumenClienteProductoCrudRepository.save(producto);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public Optional<String> rebuild(String afterClientId, int clients) {
+        // Solo se bloquean los clientes de este grupo: las compras de los demás siguen mientras tanto.
+        // Con el cliente bloqueado no hay compras suyas a medio sumar: las que ya sumaron están
+        // confirmadas y entran en el INSERT ... SELECT, y las que esperan el lock suman después.
+        // Un cliente creado durante la reconstrucción queda en un grupo posterior o mantiene su
+        // resumen solo con las compras, que ya lo suman desde la primera.
+        List<String> clientIds = clienteCrudRepository.lockPage(afterClientId, clients);
+        if (clientIds.isEmpty()) {
+            return Optional.empty();
+        }
+        resumenClienteProductoCrudRepository.deleteByClients(clientIds);
+        resumenClienteCrudRepository.deleteByClients(clientIds);
+        resumenClienteCrudRepository.rebuild(clientIds);
+        resumenClienteProductoCrudRepository.rebuild(clientIds);
+        return Optional.of(clientIds.get(clientIds.size() - 1));
+    }
+}
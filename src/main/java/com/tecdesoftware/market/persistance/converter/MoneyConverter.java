@@ -0,0 +1,26 @@
+package com.tecdesoftware.market.persistance.converter;
+
+import com.tecdesoftware.market.domain.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+// Columnas NUMERIC(16, 2) <-> Money. Se aplica a todos los atributos Money de las entidades,
+// así el BigDecimal solo existe al leer o escribir en JDBC y los mappers copian la referencia.
+// @Immutable: Hibernate compara y cachea Money por referencia en lugar de copiarlo serializando
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.of(amount) : null;
+    }
+}
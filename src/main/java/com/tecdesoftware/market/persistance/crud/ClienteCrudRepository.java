@@ -1,11 +1,26 @@
 package com.tecdesoftware.market.persistance.crud;
 
 import com.tecdesoftware.market.persistance.entity.Cliente;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ClienteCrudRepository extends CrudRepository<Cliente,String> {
 
     Optional<Cliente> findByCorreoElectronico(String correoElectronico);
+
+    //SELECT ... FOR UPDATE: serializa la creación de los resúmenes de un mismo cliente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cliente c WHERE c.id = :id")
+    Optional<Cliente> lockById(@Param("id") String id);
+
+    //Bloquea los siguientes clientes (en orden de id) para reconstruir sus resúmenes sin compras en curso
+    @Query(value = "SELECT id_cliente FROM clientes WHERE id_cliente > :afterId ORDER BY id_cliente "
+            + "LIMIT :size FOR UPDATE", nativeQuery = true)
+    List<String> lockPage(@Param("afterId") String afterId, @Param("size") int size);
 }
@@ -1,11 +1,43 @@
 package com.tecdesoftware.market.persistance.crud;
 
 import com.tecdesoftware.market.persistance.entity.Compra;
+import com.tecdesoftware.market.persistance.projection.CompraLineaVista;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface CompraCrudRepository extends CrudRepository<Compra,Integer> {
+
+    //Listados: una fila por ítem con solo las columnas que devuelve la API, sin cargar entidades
+    //(ver CompraLineaVista); el orden por compra permite juntar los ítems en una pasada
+    String LINEAS = "SELECT new com.tecdesoftware.market.persistance.projection.CompraLineaVista("
+            + "c.idCompra, c.idCliente, c.fecha, c.medioPago, c.comentario, c.estado, c.claveIdempotencia, "
+            + "p.id.idProducto, p.cantidad, p.total, p.estado) "
+            + "FROM Compra c LEFT JOIN c.productos p ";
+
+    @Query(LINEAS + "ORDER BY c.idCompra, p.id.idProducto")
+    List<CompraLineaVista> findAllLineas();
+
+    @Query(LINEAS + "WHERE c.idCliente = :idCliente ORDER BY c.idCompra, p.id.idProducto")
+    List<CompraLineaVista> findLineasByIdCliente(@Param("idCliente") String idCliente);
+
+    @EntityGraph(attributePaths = "productos")
     Optional<List<Compra>> findByIdCliente(String idCliente);
+
+    //Ids de las últimas compras del cliente (sin productos, para que el LIMIT se aplique en la base)
+    @Query("SELECT c.idCompra FROM Compra c WHERE c.idCliente = :idCliente ORDER BY c.fecha DESC, c.idCompra DESC")
+    List<Integer> findRecentIds(@Param("idCliente") String idCliente, Limit limit);
+
+    @EntityGraph(attributePaths = "productos")
+    List<Compra> findByIdCompraInOrderByFechaDescIdCompraDesc(Collection<Integer> idsCompra);
+
+    //Compra ya registrada con la misma Idempotency-Key (usa el índice único uq_compras_cliente_clave)
+    @EntityGraph(attributePaths = "productos")
+    Optional<Compra> findByIdClienteAndClaveIdempotencia(String idCliente, String claveIdempotencia);
 }
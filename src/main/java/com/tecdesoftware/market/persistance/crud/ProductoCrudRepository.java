@@ -1,22 +1,64 @@
 package com.tecdesoftware.market.persistance.crud;
 
 import com.tecdesoftware.market.persistance.entity.Producto;
+import com.tecdesoftware.market.persistance.projection.ProductoVista;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductoCrudRepository extends CrudRepository<Producto, Integer> {
 
-    //Query method
+    //Listados: solo las columnas que devuelve la API, sin cargar entidades (ver ProductoVista)
+    String VISTA = "SELECT new com.tecdesoftware.market.persistance.projection.ProductoVista("
+            + "p.idProducto, p.nombre, p.idCategoria, p.codigoBarras, p.precioVenta, p.cantidadStock, p.estado, "
+            + "c.idCategoria, c.descripcion, c.estado) "
+            + "FROM Producto p LEFT JOIN p.categoria c ";
+
+    @Query(VISTA + "ORDER BY p.idProducto ASC")
+    List<ProductoVista> findAllVistas();
+
     //Select *
     //FROM productos
     //Where id_categoria =5?
     //Order by nombre asc o dsc
-    List<Producto> findByIdCategoriaOrderByNombreAsc(int idCategoria);
+    @Query(VISTA + "WHERE p.idCategoria = :idCategoria ORDER BY p.nombre ASC")
+    List<ProductoVista> findVistasByIdCategoria(@Param("idCategoria") int idCategoria);
 
     //Cantidad stock
-    Optional<List<Producto>> findByCantidadStockLessThanAndEstado(int cantidadStock, boolean estado);
+    @Query(VISTA + "WHERE p.cantidadStock < :cantidadStock AND p.estado = true")
+    List<ProductoVista> findVistasEscasas(@Param("cantidadStock") int cantidadStock);
+
+    //Respaldo del índice de códigos de barras mientras se carga
+    Optional<Producto> findFirstByCodigoBarrasAndEstado(String codigoBarras, boolean estado);
+
+    //Paginación por cursor (keyset): WHERE id_producto > ? ORDER BY id_producto LIMIT ?
+    @Query(VISTA + "WHERE p.idProducto > :after ORDER BY p.idProducto ASC")
+    List<ProductoVista> findVistasAfter(@Param("after") int after, Limit limit);
+
+    //Recorre todo el catálogo con un cursor JDBC; debe consumirse dentro de una transacción
+    @Query(VISTA + "ORDER BY p.idProducto ASC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProductoVista> streamAllVistas();
+
+    //Descuenta stock de forma atómica; devuelve 0 si no alcanza
+    @Modifying
+    @Query("UPDATE Producto p SET p.cantidadStock = p.cantidadStock - :cantidad "
+            + "WHERE p.idProducto = :idProducto AND p.cantidadStock >= :cantidad")
+    int decreaseStock(@Param("idProducto") int idProducto, @Param("cantidad") int cantidad);
 
+    //Bloquea las filas en orden de id (SELECT ... FOR UPDATE) y devuelve id y stock de cada una
+    @Query(value = "SELECT id_producto, cantidad_stock FROM productos WHERE id_producto IN (:ids) "
+            + "ORDER BY id_producto FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStock(@Param("ids") Collection<Integer> ids);
 
 }
@@ -0,0 +1,42 @@
+package com.tecdesoftware.market.persistance.crud;
+
+import com.tecdesoftware.market.persistance.entity.ResumenCliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ResumenClienteCrudRepository extends CrudRepository<ResumenCliente, String> {
+
+    //Suma una compra al resumen; devuelve 0 si el cliente todavía no tiene resumen
+    //SQL nativo porque total_gastado se mapea con MoneyConverter; la hint limita la invalidación
+    //de la cache de segundo nivel a esta tabla
+    @Modifying
+    @Query(value = "UPDATE resumen_clientes SET total_gastado = total_gastado + :total, "
+            + "cantidad_compras = cantidad_compras + 1, "
+            + "ultima_compra = CASE WHEN ultima_compra IS NULL OR ultima_compra < :fecha THEN :fecha ELSE ultima_compra END "
+            + "WHERE id_cliente = :idCliente", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumen_clientes"))
+    int addPurchase(@Param("idCliente") String idCliente, @Param("total") BigDecimal total,
+                    @Param("fecha") LocalDateTime fecha);
+
+    //Reconstrucción a partir del historial de compras, para un grupo de clientes ya bloqueados
+    @Modifying
+    @Query("DELETE FROM ResumenCliente r WHERE r.idCliente IN :idClientes")
+    void deleteByClients(@Param("idClientes") Collection<String> idClientes);
+
+    @Modifying
+    @Query(value = "INSERT INTO resumen_clientes (id_cliente, total_gastado, cantidad_compras, ultima_compra) "
+            + "SELECT c.id_cliente, COALESCE(SUM(cp.total), 0), COUNT(DISTINCT c.id_compra), MAX(c.fecha) "
+            + "FROM compras c LEFT JOIN compras_productos cp ON cp.id_compra = c.id_compra "
+            + "WHERE c.id_cliente IN (:idClientes) "
+            + "GROUP BY c.id_cliente", nativeQuery = true)
+    int rebuild(@Param("idClientes") Collection<String> idClientes);
+}
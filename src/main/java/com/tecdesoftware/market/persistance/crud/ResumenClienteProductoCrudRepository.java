@@ -0,0 +1,43 @@
+package com.tecdesoftware.market.persistance.crud;
+
+import com.tecdesoftware.market.persistance.entity.ResumenClienteProducto;
+import com.tecdesoftware.market.persistance.entity.ResumenClienteProductoPK;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface ResumenClienteProductoCrudRepository extends CrudRepository<ResumenClienteProducto, ResumenClienteProductoPK> {
+
+    //Productos más comprados por el cliente
+    List<ResumenClienteProducto> findByIdIdClienteOrderByCantidadDesc(String idCliente, Limit limit);
+
+    //SQL nativo por el MoneyConverter de total, igual que ResumenClienteCrudRepository.addPurchase
+    @Modifying
+    @Query(value = "UPDATE resumen_cliente_productos SET cantidad = cantidad + :cantidad, total = total + :total "
+            + "WHERE id_cliente = :idCliente AND id_producto = :idProducto", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumen_cliente_productos"))
+    int addItem(@Param("idCliente") String idCliente, @Param("idProducto") int idProducto,
+                @Param("cantidad") int cantidad, @Param("total") BigDecimal total);
+
+    //Reconstrucción a partir del historial de compras, para un grupo de clientes ya bloqueados
+    @Modifying
+    @Query("DELETE FROM ResumenClienteProducto r WHERE r.id.idCliente IN :idClientes")
+    void deleteByClients(@Param("idClientes") Collection<String> idClientes);
+
+    @Modifying
+    @Query(value = "INSERT INTO resumen_cliente_productos (id_cliente, id_producto, cantidad, total) "
+            + "SELECT c.id_cliente, cp.id_producto, SUM(cp.cantidad), SUM(cp.total) "
+            + "FROM compras c JOIN compras_productos cp ON cp.id_compra = c.id_compra "
+            + "WHERE c.id_cliente IN (:idClientes) "
+            + "GROUP BY c.id_cliente, cp.id_producto", nativeQuery = true)
+    int rebuild(@Param("idClientes") Collection<String> idClientes);
+}
@@ -9,7 +9,9 @@ import java.util.List;
 public class Compra {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled: permite agrupar los INSERT en lotes JDBC (IDENTITY no lo permite)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compras_seq")
+    @SequenceGenerator(name = "compras_seq", sequenceName = "compras_seq", allocationSize = 50)
     @Column(name = "id_compra")
     private Integer idCompra;
 
@@ -24,7 +26,16 @@ public class Compra {
     private String comentario;
     private String estado;
 
-    @ManyToOne
+    // Idempotency-Key con la que el cliente envió la compra (única por cliente)
+    @Column(name = "clave_idempotencia", length = 100)
+    private String claveIdempotencia;
+
+    // Huella del contenido con el que llegó la primera vez esa clave
+    @Column(name = "huella_solicitud", length = 64)
+    private String huellaSolicitud;
+
+    // LAZY: el mapper no usa el cliente, así no se consulta por cada compra
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente", insertable = false, updatable = false)
     private Cliente cliente;
 
@@ -85,6 +96,22 @@ public class Compra {
         this.estado = estado;
     }
 
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
+    }
+
+    public void setClaveIdempotencia(String claveIdempotencia) {
+        this.claveIdempotencia = claveIdempotencia;
+    }
+
+    public String getHuellaSolicitud() {
+        return huellaSolicitud;
+    }
+
+    public void setHuellaSolicitud(String huellaSolicitud) {
+        this.huellaSolicitud = huellaSolicitud;
+    }
+
     public Cliente getCliente() {
         return cliente;
     }
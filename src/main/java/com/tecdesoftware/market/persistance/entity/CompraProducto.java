@@ -1,5 +1,6 @@
 package com.tecdesoftware.market.persistance.entity;
 
+import com.tecdesoftware.market.domain.Money;
 import jakarta.persistence.*;
 
 @Entity
@@ -10,15 +11,16 @@ public class CompraProducto {
     private CompraProductoPK id;
 
     private Integer cantidad;
-    private Double total;
+    private Money total;
     private Boolean estado;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("idCompra")
     @JoinColumn(name = "id_compra", insertable = false, updatable = false)
     private Compra compra;
 
-    @ManyToOne
+    // LAZY: para listar compras basta con id.idProducto, no hace falta cargar producto y categoría
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_producto", insertable = false, updatable = false)
     private Producto producto;
 
@@ -43,11 +45,11 @@ public class CompraProducto {
         this.cantidad = cantidad;
     }
 
-    public Double getTotal() {
+    public Money getTotal() {
         return total;
     }
 
-    public void setTotal(Double total) {
+    public void setTotal(Money total) {
         this.total = total;
     }
 
@@ -1,7 +1,9 @@
 package com.tecdesoftware.market.persistance.entity;
-import java.math.BigDecimal;
+import com.tecdesoftware.market.domain.Money;
 import jakarta.persistence.*;
 
+// Sin cache de segundo nivel: el stock cambia en cada compra con un UPDATE masivo, que vaciaría la región
+// entera. Las lecturas de productos ya se sirven desde ProductCache y los índices en memoria.
 @Entity
 @Table(name = "productos")
 public class Producto {
@@ -20,7 +22,7 @@ public class Producto {
     private String codigoBarras;
 
     @Column(name = "precio_venta", precision = 16, scale = 2)
-    private BigDecimal precioVenta;
+    private Money precioVenta;
 
     @Column(name = "cantidad_stock")
     private Integer cantidadStock;
@@ -69,11 +71,11 @@ public class Producto {
         this.codigoBarras = codigoBarras;
     }
 
-    public BigDecimal getPrecioVenta() {
+    public Money getPrecioVenta() {
         return precioVenta;
     }
 
-    public void setPrecioVenta(BigDecimal precioVenta) {
+    public void setPrecioVenta(Money precioVenta) {
         this.precioVenta = precioVenta;
     }
 
@@ -0,0 +1,61 @@
+package com.tecdesoftware.market.persistance.entity;
+
+import com.tecdesoftware.market.domain.Money;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Totales acumulados por cliente; se actualizan con cada compra para no recorrer su historial
+@Entity
+@Table(name = "resumen_clientes")
+public class ResumenCliente {
+
+    @Id
+    @Column(name = "id_cliente")
+    private String idCliente;
+
+    @Column(name = "total_gastado")
+    private Money totalGastado;
+
+    @Column(name = "cantidad_compras")
+    private Integer cantidadCompras;
+
+    @Column(name = "ultima_compra")
+    private LocalDateTime ultimaCompra;
+
+    // Constructor sin argumentos (requerido por JPA)
+    public ResumenCliente() {
+    }
+
+    // Getters y Setters
+    public String getIdCliente() {
+        return idCliente;
+    }
+
+    public void setIdCliente(String idCliente) {
+        this.idCliente = idCliente;
+    }
+
+    public Money getTotalGastado() {
+        return totalGastado;
+    }
+
+    public void setTotalGastado(Money totalGastado) {
+        this.totalGastado = totalGastado;
+    }
+
+    public Integer getCantidadCompras() {
+        return cantidadCompras;
+    }
+
+    public void setCantidadCompras(Integer cantidadCompras) {
+        this.cantidadCompras = cantidadCompras;
+    }
+
+    public LocalDateTime getUltimaCompra() {
+        return ultimaCompra;
+    }
+
+    public void setUltimaCompra(LocalDateTime ultimaCompra) {
+        this.ultimaCompra = ultimaCompra;
+    }
+}
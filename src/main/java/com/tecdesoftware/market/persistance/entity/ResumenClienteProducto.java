@@ -0,0 +1,45 @@
+package com.tecdesoftware.market.persistance.entity;
+
+import com.tecdesoftware.market.domain.Money;
+import jakarta.persistence.*;
+
+// Unidades y total comprados por cliente y producto (para el ranking de productos más comprados)
+@Entity
+@Table(name = "resumen_cliente_productos")
+public class ResumenClienteProducto {
+
+    @EmbeddedId
+    private ResumenClienteProductoPK id;
+
+    private Integer cantidad;
+    private Money total;
+
+    // Constructor sin argumentos
+    public ResumenClienteProducto() {
+    }
+
+    // Getters y Setters
+    public ResumenClienteProductoPK getId() {
+        return id;
+    }
+
+    public void setId(ResumenClienteProductoPK id) {
+        this.id = id;
+    }
+
+    public Integer getCantidad() {
+        return cantidad;
+    }
+
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+
+    public Money getTotal() {
+        return total;
+    }
+
+    public void setTotal(Money total) {
+        this.total = total;
+    }
+}
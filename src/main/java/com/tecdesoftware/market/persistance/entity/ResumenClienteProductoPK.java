@@ -0,0 +1,52 @@
+package com.tecdesoftware.market.persistance.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ResumenClienteProductoPK implements Serializable {
+    @Column(name="id_cliente")
+    private String idCliente;
+
+    @Column(name="id_producto")
+    private Integer idProducto;
+
+    public ResumenClienteProductoPK() {
+    }
+
+    public ResumenClienteProductoPK(String idCliente, Integer idProducto) {
+        this.idCliente = idCliente;
+        this.idProducto = idProducto;
+    }
+
+    public String getIdCliente() {
+        return idCliente;
+    }
+
+    public void setIdCliente(String idCliente) {
+        this.idCliente = idCliente;
+    }
+
+    public Integer getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(Integer idProducto) {
+        this.idProducto = idProducto;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumenClienteProductoPK that)) return false;
+        return Objects.equals(idCliente, that.idCliente) && Objects.equals(idProducto, that.idProducto);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idCliente, idProducto);
+    }
+}
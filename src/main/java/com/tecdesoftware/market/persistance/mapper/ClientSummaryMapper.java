@@ -0,0 +1,34 @@
+package com.tecdesoftware.market.persistance.mapper;
+
+import com.tecdesoftware.market.domain.ClientSummary;
+import com.tecdesoftware.market.domain.TopProduct;
+import com.tecdesoftware.market.persistance.entity.ResumenCliente;
+import com.tecdesoftware.market.persistance.entity.ResumenClienteProducto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ClientSummaryMapper {
+
+    @Mappings({
+            @Mapping(source = "idCliente", target = "clientId"),
+            @Mapping(source = "totalGastado", target = "totalSpent"),
+            @Mapping(source = "cantidadCompras", target = "purchaseCount"),
+            @Mapping(source = "ultimaCompra", target = "lastPurchaseDate"),
+            @Mapping(target = "recentPurchases", ignore = true),
+            @Mapping(target = "topProducts", ignore = true)
+    })
+    ClientSummary toClientSummary(ResumenCliente resumen);
+
+    @Mappings({
+            @Mapping(source = "id.idProducto", target = "productId"),
+            @Mapping(source = "cantidad", target = "quantity"),
+            @Mapping(source = "total", target = "total")
+    })
+    TopProduct toTopProduct(ResumenClienteProducto producto);
+
+    List<TopProduct> toTopProducts(List<ResumenClienteProducto> productos);
+}
@@ -15,6 +15,7 @@ public interface ProductMapper {
             @Mapping(source = "idProducto", target = "productId"),
             @Mapping(source = "nombre", target = "name"),
             @Mapping(source = "idCategoria", target = "categoryId"),
+            @Mapping(source = "codigoBarras", target = "barcode"),
             @Mapping(source = "precioVenta", target = "price"),
             @Mapping(source = "cantidadStock", target = "stock"),
             @Mapping(source = "estado", target = "active"),
@@ -31,7 +32,7 @@ public interface ProductMapper {
             @Mapping(source = "price", target = "precioVenta"),
             @Mapping(source = "stock", target = "cantidadStock"),
             @Mapping(source = "active", target = "estado"),
-            @Mapping(target = "codigoBarras", ignore = true),
+            @Mapping(source = "barcode", target = "codigoBarras"),
             @Mapping(target = "categoria", ignore = true)
     })
     Producto toProducto(Product product);
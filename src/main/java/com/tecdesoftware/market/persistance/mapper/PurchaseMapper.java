@@ -20,6 +20,8 @@ public interface PurchaseMapper {
             @Mapping(source = "medioPago", target = "paymentMethod"),
             @Mapping(source = "comentario", target = "comment"),
             @Mapping(source = "estado", target = "state"),
+            @Mapping(source = "claveIdempotencia", target = "idempotencyKey"),
+            @Mapping(source = "huellaSolicitud", target = "requestHash"),
             @Mapping(source = "productos", target = "items")
     })
     Purchase toPurchase(Compra compra);
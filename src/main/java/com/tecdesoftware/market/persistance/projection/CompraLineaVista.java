@@ -0,0 +1,59 @@
+package com.tecdesoftware.market.persistance.projection;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Una fila por ítem de compra (o una con idProducto nulo si la compra no tiene ítems), con las columnas
+// que devuelve la API. Se arma con un SELECT new de JPQL, sin cargar Compra ni CompraProducto.
+public record CompraLineaVista(Integer idCompra, String idCliente, LocalDateTime fecha, String medioPago,
+                               String comentario, String estado, String claveIdempotencia,
+                               Integer idProducto, Integer cantidad, Money total, Boolean estadoProducto) {
+
+    // Junta las filas consecutivas de cada compra; deben venir ordenadas por idCompra
+    public static List<Purchase> toPurchases(List<CompraLineaVista> lineas) {
+        List<Purchase> purchases = new ArrayList<>();
+        Purchase current = null;
+        for (CompraLineaVista linea : lineas) {
+            if (current == null || current.getPurchaseId() != linea.idCompra()) {
+                current = linea.toPurchase();
+                purchases.add(current);
+            }
+            if (linea.idProducto() != null) {
+                current.getItems().add(linea.toPurchaseItem());
+            }
+        }
+        return purchases;
+    }
+
+    // Mismos nombres y nulos que PurchaseMapper.toPurchase
+    private Purchase toPurchase() {
+        Purchase purchase = new Purchase();
+        purchase.setPurchaseId(idCompra);
+        purchase.setClientId(idCliente);
+        purchase.setDate(fecha);
+        purchase.setPaymentMethod(medioPago);
+        purchase.setComment(comentario);
+        purchase.setState(estado);
+        purchase.setIdempotencyKey(claveIdempotencia);
+        purchase.setItems(new ArrayList<>());
+        return purchase;
+    }
+
+    private PurchaseItem toPurchaseItem() {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(idProducto);
+        if (cantidad != null) {
+            item.setQuantity(cantidad);
+        }
+        item.setTotal(total);
+        if (estadoProducto != null) {
+            item.setActive(estadoProducto);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tecdesoftware.market.persistance.projection;
+
+import com.tecdesoftware.market.domain.Category;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+
+// Columnas de un producto y su categoría tal como las devuelve la API. Se arma con un SELECT new de JPQL:
+// Hibernate no crea entidades, ni copias para detectar cambios, ni entradas en el contexto de persistencia.
+public record ProductoVista(Integer idProducto, String nombre, Integer idCategoria, String codigoBarras,
+                           Money precioVenta, Integer cantidadStock, Boolean estado,
+                           Integer categoriaId, String categoriaDescripcion, Boolean categoriaEstado) {
+
+    // Mismos nombres y nulos que ProductMapper.toProduct
+    public Product toProduct() {
+        Product product = new Product();
+        if (idProducto != null) {
+            product.setProductId(idProducto);
+        }
+        product.setName(nombre);
+        if (idCategoria != null) {
+            product.setCategoryId(idCategoria);
+        }
+        product.setBarcode(codigoBarras);
+        product.setPrice(precioVenta);
+        if (cantidadStock != null) {
+            product.setStock(cantidadStock);
+        }
+        if (estado != null) {
+            product.setActive(estado);
+        }
+        // LEFT JOIN: producto sin categoría
+        if (categoriaId != null) {
+            Category category = new Category();
+            category.setCategoryId(categoriaId);
+            category.setCategory(categoriaDescripcion);
+            category.setActive(categoriaEstado);
+            product.setCategory(category);
+        }
+        return product;
+    }
+}
@@ -0,0 +1,169 @@
+package com.tecdesoftware.market.web.controller;
+
+import com.tecdesoftware.market.domain.dto.BasketStats;
+import com.tecdesoftware.market.domain.dto.SalesGroup;
+import com.tecdesoftware.market.domain.service.AnalyticsService;
+import com.tecdesoftware.market.domain.service.SalesRollups;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@CrossOrigin(origins = "*")
+@RestController
+@RequestMapping("/analytics")
+@Tag(name = "Analytics Controller", description = "API de tableros de ventas (solo administradores)")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/revenue")
+    @Operation(
+            summary = "Ventas agrupadas",
+            description = "Retorna unidades, monto e ítems vendidos por categoría, día o medio de pago entre dos "
+                    + "fechas (inclusive; por defecto los últimos 30 días). Por día salen en orden cronológico y el "
+                    + "resto de mayor a menor monto"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Ventas obtenidas exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = SalesGroup.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Agrupación o rango de fechas inválido",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "403",
+            description = "El usuario no es administrador",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Los agregados todavía se están cargando",
+            content = @Content
+    )
+    public ResponseEntity<?> getRevenue(
+            @Parameter(description = "category, day o paymentMethod", example = "category")
+            @RequestParam(name = "by", defaultValue = SalesRollups.BY_CATEGORY) String by,
+            @Parameter(description = "Primer día del rango (inclusive)", example = "2025-07-01")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día del rango (inclusive)", example = "2025-07-31")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return analyticsService.getSalesBy(by, from, to)
+                    .<ResponseEntity<?>>map(groups -> new ResponseEntity<>(groups, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/top-products")
+    @Operation(
+            summary = "Productos más vendidos",
+            description = "Retorna los productos con más unidades o más monto vendido entre dos fechas (inclusive; "
+                    + "por defecto los últimos 30 días). La clave de cada grupo es el id del producto"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Ranking obtenido exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = SalesGroup.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Rango de fechas inválido",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "403",
+            description = "El usuario no es administrador",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Los agregados todavía se están cargando",
+            content = @Content
+    )
+    public ResponseEntity<?> getTopProducts(
+            @Parameter(description = "Primer día del rango (inclusive)", example = "2025-07-01")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día del rango (inclusive)", example = "2025-07-31")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Cantidad de productos (máximo 1000)", example = "10")
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @Parameter(description = "units para ordenar por unidades, revenue por monto", example = "revenue")
+            @RequestParam(name = "orderBy", defaultValue = "revenue") String orderBy) {
+        if (!"units".equals(orderBy) && !"revenue".equals(orderBy)) {
+            return ResponseEntity.badRequest().body("Orden no soportado: " + orderBy);
+        }
+        try {
+            return analyticsService.getTopProducts(from, to, limit, "units".equals(orderBy))
+                    .<ResponseEntity<?>>map(products -> new ResponseEntity<>(products, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/baskets")
+    @Operation(
+            summary = "Tamaño de las compras",
+            description = "Retorna la cantidad de compras, los promedios de ítems, unidades y monto por compra y la "
+                    + "distribución por cantidad de ítems (las de más de 100 ítems se cuentan en 100)"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Estadísticas obtenidas exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BasketStats.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Rango de fechas inválido",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "403",
+            description = "El usuario no es administrador",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Los agregados todavía se están cargando",
+            content = @Content
+    )
+    public ResponseEntity<?> getBaskets(
+            @Parameter(description = "Primer día del rango (inclusive)", example = "2025-07-01")
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día del rango (inclusive)", example = "2025-07-31")
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return analyticsService.getBasketStats(from, to)
+                    .<ResponseEntity<?>>map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
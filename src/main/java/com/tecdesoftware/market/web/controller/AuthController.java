@@ -1,21 +1,30 @@
 package com.tecdesoftware.market.web.controller;
 
+import com.tecdesoftware.market.domain.dto.AuthTokens;
 import com.tecdesoftware.market.domain.dto.LoginRequest;
+import com.tecdesoftware.market.domain.dto.RefreshRequest;
+import com.tecdesoftware.market.domain.exception.LoginOverloadedException;
+import com.tecdesoftware.market.domain.exception.TooManyLoginAttemptsException;
 import com.tecdesoftware.market.domain.service.AuthService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -41,19 +50,81 @@ public class AuthController {
                     )
             ),
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Login exitoso. Se devuelve el token JWT."),
+                    @ApiResponse(responseCode = "200", description = "Login exitoso. Se devuelve el token JWT y un refresh token."),
                     @ApiResponse(responseCode = "401", description = "Credenciales inválidas"),
+                    @ApiResponse(responseCode = "429", description = "Demasiados intentos para el correo o la IP"),
+                    @ApiResponse(responseCode = "503", description = "Servicio de autenticación saturado, reintentar luego"),
                     @ApiResponse(responseCode = "500", description = "Error interno del servidor")
             }
     )
+    // Asíncrono: el hilo del request se libera mientras BCrypt corre en su pool
     @PostMapping("/login")
-    public ResponseEntity<?> login(@org.springframework.web.bind.annotation.RequestBody LoginRequest request) {
-        String token = authService.login(request.getCorreo(), request.getContrasena());
-
-        if (token == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales inválidas");
+    public CompletableFuture<ResponseEntity<?>> login(@org.springframework.web.bind.annotation.RequestBody LoginRequest request,
+                                                      HttpServletRequest httpRequest) {
+        CompletableFuture<Optional<AuthTokens>> tokens;
+        try {
+            tokens = authService.login(request.getCorreo(), request.getContrasena(), httpRequest.getRemoteAddr());
+        } catch (TooManyLoginAttemptsException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage()));
         }
 
-        return ResponseEntity.ok(Collections.singletonMap("token", token));
+        return tokens.handle((result, error) -> {
+            if (error == null) {
+                return result.<ResponseEntity<?>>map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Credenciales inválidas"));
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof LoginOverloadedException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(cause.getMessage());
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    @Operation(
+            summary = "Renovar token",
+            description = "Cambia un refresh token vigente por un nuevo token JWT y un nuevo refresh token. "
+                    + "El refresh token usado deja de ser válido.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = RefreshRequest.class),
+                            examples = @ExampleObject(value = """
+                            {
+                              "refreshToken": "q3Jx9...b2Q"
+                            }
+                            """)
+                    )
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Tokens renovados"),
+                    @ApiResponse(responseCode = "401", description = "Refresh token inválido, vencido o ya usado")
+            }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@org.springframework.web.bind.annotation.RequestBody RefreshRequest request) {
+        return authService.refresh(request.getRefreshToken())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token inválido"));
+    }
+
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca el refresh token indicado. Con all=true cierra también todas las demás "
+                    + "sesiones del mismo usuario",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Refresh token revocado")
+            }
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@org.springframework.web.bind.annotation.RequestBody RefreshRequest request,
+                                       @Parameter(description = "Cerrar todas las sesiones del usuario", example = "false")
+                                       @RequestParam(name = "all", defaultValue = "false") boolean all) {
+        authService.logout(request.getRefreshToken(), all);
+        return ResponseEntity.noContent().build();
     }
 }
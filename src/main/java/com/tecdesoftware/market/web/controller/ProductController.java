@@ -1,7 +1,12 @@
 package com.tecdesoftware.market.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.dto.BarcodeSnapshot;
+import com.tecdesoftware.market.domain.dto.CatalogVersion;
+import com.tecdesoftware.market.domain.dto.ProductPage;
 import com.tecdesoftware.market.domain.service.ProductService;
+import com.tecdesoftware.market.web.sse.StockAlertBroadcaster;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,11 +16,20 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "*")
 @RestController
@@ -26,10 +40,25 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StockAlertBroadcaster stockAlertBroadcaster;
+
+    // Cache-Control de los listados con ETag ("no-cache" = el cliente siempre revalida)
+    @Value("${market.http.cache-control.products:no-cache}")
+    private String productsCacheControl;
+
+    @Value("${market.http.cache-control.products-by-category:no-cache}")
+    private String categoryCacheControl;
+
     @GetMapping
     @Operation(
             summary = "Obtener todos los productos",
-            description = "Retorna una lista de todos los productos disponibles en el sistema"
+            description = "Retorna una lista de todos los productos disponibles en el sistema. "
+                    + "Para catálogos grandes usar /products/page o /products/stream",
+            deprecated = true
     )
     @ApiResponse(
             responseCode = "200",
@@ -39,11 +68,110 @@ public class ProductController {
                     schema = @Schema(implementation = Product.class)
             )
     )
-    public ResponseEntity<List<Product>> getAll() {
+    @ApiResponse(
+            responseCode = "304",
+            description = "El catálogo no cambió desde el ETag / fecha enviados",
+            content = @Content
+    )
+    public ResponseEntity<List<Product>> getAll(ServletWebRequest request) {
+        if (notModified(request, productService.getCatalogVersion(), productsCacheControl)) {
+            return null;
+        }
         List<Product> products = productService.getAll();
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    @GetMapping("/page")
+    @Operation(
+            summary = "Obtener productos paginados por cursor",
+            description = "Retorna hasta 'size' productos con id mayor a 'after'. "
+                    + "Usar 'nextCursor' de la respuesta como 'after' para pedir la siguiente página"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Página de productos obtenida exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ProductPage.class)
+            )
+    )
+    public ResponseEntity<ProductPage> getPage(
+            @Parameter(description = "Id del último producto recibido (0 para la primera página)", example = "0")
+            @RequestParam(name = "after", defaultValue = "0") int after,
+            @Parameter(description = "Cantidad de productos por página (máximo 500)", example = "100")
+            @RequestParam(name = "size", defaultValue = "100") int size) {
+        return new ResponseEntity<>(productService.getPage(after, size), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @Operation(
+            summary = "Exportar todos los productos en streaming",
+            description = "Escribe un producto JSON por línea (NDJSON) a medida que se leen de la base de datos"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Productos enviados exitosamente",
+            content = @Content(mediaType = "application/x-ndjson")
+    )
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> productService.streamAll(product -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Buscar productos por nombre o código de barras",
+            description = "Todas las palabras deben coincidir; la última se busca también como prefijo. "
+                    + "Las palabras de 4 letras o más toleran un error de tipeo si no aparecen tal cual"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Resultados de la búsqueda",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = Product.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "El índice de búsqueda todavía se está cargando",
+            content = @Content
+    )
+    public ResponseEntity<List<Product>> search(
+            @Parameter(description = "Texto a buscar", example = "lech ente", required = true)
+            @RequestParam("q") String query,
+            @Parameter(description = "Filtrar por id de categoría", example = "1")
+            @RequestParam(name = "categoryId", required = false) Integer categoryId,
+            @Parameter(description = "Cantidad máxima de resultados (máximo 100)", example = "20")
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return productService.search(query, categoryId, limit)
+                .map(products -> new ResponseEntity<>(products, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(
+            summary = "Estadísticas de la cache de productos",
+            description = "Retorna aciertos, fallos, desalojos y tamaño de la cache por producto y por categoría"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Estadísticas obtenidas exitosamente",
+            content = @Content(mediaType = "application/json")
+    )
+    public ResponseEntity<Map<String, Map<String, Long>>> getCacheStats() {
+        return new ResponseEntity<>(productService.getCacheStats(), HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     @Operation(
             summary = "Obtener producto por ID",
@@ -74,6 +202,32 @@ public class ProductController {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping("/barcode/{code}")
+    @Operation(
+            summary = "Obtener producto por código de barras",
+            description = "Retorna el id, el precio y el stock del producto activo con ese código, para las cajas"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Producto encontrado exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = BarcodeSnapshot.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Ningún producto activo tiene ese código",
+            content = @Content
+    )
+    public ResponseEntity<BarcodeSnapshot> getByBarcode(
+            @Parameter(description = "Código de barras escaneado", required = true, example = "7501055300075")
+            @PathVariable("code") String barcode) {
+        return productService.getByBarcode(barcode)
+                .map(snapshot -> new ResponseEntity<>(snapshot, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
     @GetMapping("/category/{categoryId}")
     @Operation(
             summary = "Obtener productos por categoría",
@@ -87,6 +241,11 @@ public class ProductController {
                     schema = @Schema(implementation = Product.class)
             )
     )
+    @ApiResponse(
+            responseCode = "304",
+            description = "La categoría no cambió desde el ETag / fecha enviados",
+            content = @Content
+    )
     @ApiResponse(
             responseCode = "404",
             description = "No se encontraron productos para la categoría especificada",
@@ -98,7 +257,11 @@ public class ProductController {
                     required = true,
                     example = "1"
             )
-            @PathVariable("categoryId") int categoryId) {
+            @PathVariable("categoryId") int categoryId,
+            ServletWebRequest request) {
+        if (notModified(request, productService.getCategoryVersion(categoryId), categoryCacheControl)) {
+            return null;
+        }
         return productService.getByCategory(categoryId)
                 .map(products -> new ResponseEntity<>(products, HttpStatus.OK))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
@@ -134,6 +297,21 @@ public class ProductController {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping(value = "/scarce/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Suscribirse a avisos de stock bajo",
+            description = "Abre un stream SSE que envía un evento 'stock-alert' cada vez que un producto activo "
+                    + "baja del umbral configurado (market.stock.alert-threshold) o vuelve a superarlo"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Stream de avisos abierto",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+    )
+    public SseEmitter subscribeScarceAlerts() {
+        return stockAlertBroadcaster.subscribe();
+    }
+
     @PostMapping
     @Operation(
             summary = "Crear un nuevo producto",
@@ -166,6 +344,7 @@ public class ProductController {
                                     {
                                         "name": "Leche Entera",
                                         "categoryId": 1,
+                                        "barcode": "7501055300075",
                                         "price": 25.50,
                                         "stock": 100,
                                         "active": true
@@ -222,4 +401,13 @@ public class ProductController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    // Compara If-None-Match / If-Modified-Since con la versión del catálogo. Si coinciden responde 304
+    // (Spring ya escribió la respuesta) sin tocar el repositorio; si no, deja ETag y Last-Modified puestos.
+    // La versión se toma antes de leer los productos: si cambian en el medio, el cliente recibe datos
+    // nuevos con el ETag viejo y vuelve a pedirlos, nunca datos viejos con el ETag nuevo.
+    private boolean notModified(ServletWebRequest request, CatalogVersion version, String cacheControl) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return request.checkNotModified(version.getEtag(), version.getLastModified());
+    }
+}
@@ -1,7 +1,21 @@
 package com.tecdesoftware.market.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecdesoftware.market.domain.ClientSummary;
 import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.dto.PurchaseResult;
+import com.tecdesoftware.market.domain.dto.PurchaseTicket;
+import com.tecdesoftware.market.domain.dto.SavedPurchase;
+import com.tecdesoftware.market.domain.exception.IdempotencyKeyReusedException;
+import com.tecdesoftware.market.domain.exception.InsufficientStockException;
+import com.tecdesoftware.market.domain.exception.ProductNotFoundException;
+import com.tecdesoftware.market.domain.exception.PurchaseInProgressException;
+import com.tecdesoftware.market.domain.exception.PurchaseQueueFullException;
+import com.tecdesoftware.market.domain.service.AsyncPurchaseService;
+import com.tecdesoftware.market.domain.service.IdempotentPurchaseService;
 import com.tecdesoftware.market.domain.service.PurchaseService;
+import com.tecdesoftware.market.web.export.AcceptEncoding;
+import com.tecdesoftware.market.web.export.PurchaseExportWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,21 +24,42 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/purchases")
 @Tag(name = "Purchase Controller", description = "API para gestión de compras y transacciones")
 public class PurchaseController {
 
+    // Header de respuesta que indica que la compra ya existía y no se volvió a registrar
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final PurchaseService purchaseService;
+    private final IdempotentPurchaseService idempotentPurchaseService;
+    // Vacío salvo con market.purchases.async.enabled=true
+    private final Optional<AsyncPurchaseService> asyncPurchaseService;
+    private final ObjectMapper objectMapper;
 
-    public PurchaseController(PurchaseService purchaseService) {
+    public PurchaseController(PurchaseService purchaseService, IdempotentPurchaseService idempotentPurchaseService,
+                              Optional<AsyncPurchaseService> asyncPurchaseService, ObjectMapper objectMapper) {
         this.purchaseService = purchaseService;
+        this.idempotentPurchaseService = idempotentPurchaseService;
+        this.asyncPurchaseService = asyncPurchaseService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -44,6 +79,63 @@ public class PurchaseController {
         return ResponseEntity.ok(purchaseService.getAll());
     }
 
+    @GetMapping("/export")
+    @Operation(
+            summary = "Exportar compras por rango de fechas",
+            description = "Escribe las compras del rango (con sus ítems) a medida que se leen de la base, en CSV "
+                    + "(una fila por ítem) o NDJSON (una compra por línea). Si Accept-Encoding acepta gzip (con q "
+                    + "mayor a 0) la respuesta va comprimida. La memoria usada no depende de la cantidad de compras"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Exportación enviada",
+            content = {
+                    @Content(mediaType = "text/csv"),
+                    @Content(mediaType = "application/x-ndjson")
+            }
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Rango de fechas o formato inválido",
+            content = @Content
+    )
+    public ResponseEntity<?> export(
+            @Parameter(description = "Primer día del rango (inclusive)", required = true, example = "2025-07-01")
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Último día del rango (inclusive)", required = true, example = "2025-07-31")
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "csv o ndjson", example = "csv")
+            @RequestParam(name = "format", defaultValue = PurchaseExportWriter.CSV) String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("La fecha 'from' debe ser anterior o igual a 'to'");
+        }
+        if (!PurchaseExportWriter.CSV.equals(format) && !PurchaseExportWriter.NDJSON.equals(format)) {
+            return ResponseEntity.badRequest().body("Formato no soportado: " + format);
+        }
+
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+            try (PurchaseExportWriter writer = PurchaseExportWriter.of(format, gzipOut != null ? gzipOut : out, objectMapper)) {
+                purchaseService.export(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), writer);
+            }
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PurchaseExportWriter.contentType(format)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("purchases-" + from + "-" + to + "." + format).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/client/{clientId}")
     @Operation(
             summary = "Obtener compras por cliente",
@@ -74,27 +166,118 @@ public class PurchaseController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/client/{clientId}/summary")
+    @Operation(
+            summary = "Obtener resumen de compras de un cliente",
+            description = "Retorna total gastado, cantidad de compras, últimas compras y productos más comprados, "
+                    + "a partir de los totales acumulados del cliente (sin recorrer todo su historial)"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Resumen obtenido exitosamente",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ClientSummary.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "El cliente no tiene compras registradas",
+            content = @Content
+    )
+    public ResponseEntity<ClientSummary> getClientSummary(
+            @Parameter(description = "ID único del cliente", required = true, example = "CLI001")
+            @PathVariable String clientId,
+            @Parameter(description = "Cantidad de compras recientes a incluir (máximo 50)", example = "5")
+            @RequestParam(name = "recent", defaultValue = "5") int recent,
+            @Parameter(description = "Cantidad de productos más comprados a incluir (máximo 50)", example = "5")
+            @RequestParam(name = "top", defaultValue = "5") int top) {
+        return purchaseService.getClientSummary(clientId, recent, top)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/client-summaries/rebuild")
+    @Operation(
+            summary = "Reconstruir resúmenes de clientes",
+            description = "Recalcula los totales acumulados de todos los clientes a partir del historial de compras. "
+                    + "Trabaja por grupos de clientes (market.purchases.client-summaries.rebuild-chunk-size), cada "
+                    + "uno en su transacción: mientras se recalcula un grupo, las compras de esos clientes esperan "
+                    + "a que termine. Solo para administradores (market.security.admin-emails)"
+    )
+    @ApiResponse(
+            responseCode = "204",
+            description = "Resúmenes reconstruidos exitosamente",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "403",
+            description = "El usuario no es administrador",
+            content = @Content
+    )
+    public ResponseEntity<Void> rebuildClientSummaries() {
+        purchaseService.rebuildClientSummaries();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping
     @Operation(
             summary = "Crear una nueva compra",
-            description = "Registra una nueva compra en el sistema con todos sus detalles e items"
+            description = "Registra una nueva compra en el sistema con todos sus detalles e items. "
+                    + "Con el header Idempotency-Key los reintentos devuelven la compra ya registrada "
+                    + "(con el header Idempotent-Replayed: true) en lugar de duplicarla; reutilizar la clave "
+                    + "con otra compra responde 422. "
+                    + "En modo asíncrono, una compra sin Idempotency-Key se acepta con 202 y un ticket "
+                    + "que se consulta en /purchases/pending/{ticket}"
     )
     @ApiResponse(
             responseCode = "201",
-            description = "Compra creada exitosamente",
+            description = "Compra creada exitosamente (o ya registrada con la misma Idempotency-Key)",
             content = @Content(
                     mediaType = "application/json",
                     schema = @Schema(implementation = Purchase.class)
             )
     )
+    @ApiResponse(
+            responseCode = "202",
+            description = "Compra aceptada en modo asíncrono; todavía puede rechazarse al guardarla",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = PurchaseTicket.class)
+            )
+    )
     @ApiResponse(
             responseCode = "400",
             description = "Datos de la compra inválidos",
             content = @Content
     )
-    public ResponseEntity<Purchase> save(
+    @ApiResponse(
+            responseCode = "404",
+            description = "Alguno de los productos no existe",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "409",
+            description = "Stock insuficiente para alguno de los productos, "
+                    + "o la compra con la misma Idempotency-Key todavía se está procesando",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "422",
+            description = "La Idempotency-Key ya se usó con otra compra (otros productos, cantidades o datos)",
+            content = @Content
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Modo asíncrono: demasiadas compras pendientes de registrar",
+            content = @Content
+    )
+    public ResponseEntity<?> save(
+            @Parameter(description = "Clave única del envío; los reintentos deben repetirla", example = "pos-12-000457")
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody(
-                    description = "Datos de la compra a crear",
+                    description = "Datos de la compra a crear. El total de cada ítem lo calcula el servidor "
+                            + "con el precio actual del producto",
                     required = true,
                     content = @Content(
                             mediaType = "application/json",
@@ -113,13 +296,11 @@ public class PurchaseController {
                                             {
                                                 "productId": 1,
                                                 "quantity": 2,
-                                                "total": 51.00,
                                                 "active": true
                                             },
                                             {
                                                 "productId": 2,
                                                 "quantity": 1,
-                                                "total": 15.75,
                                                 "active": true
                                             }
                                         ]
@@ -129,8 +310,92 @@ public class PurchaseController {
                     )
             )
             @org.springframework.web.bind.annotation.RequestBody Purchase purchase) {
-        Purchase saved = purchaseService.save(purchase);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        try {
+            // Las compras con Idempotency-Key siguen por el camino sincrónico, que deduplica contra la base
+            if (asyncPurchaseService.isPresent() && idempotencyKey == null) {
+                PurchaseTicket ticket = asyncPurchaseService.get().accept(purchase);
+                return ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                .path("/purchases/pending/{ticket}")
+                                .queryParam("clientId", purchase.getClientId())
+                                .build(ticket.getTicket()))
+                        .body(ticket);
+            }
+            SavedPurchase saved = idempotentPurchaseService.save(purchase, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(REPLAYED_HEADER, String.valueOf(saved.isReplayed()))
+                    .body(saved.getPurchase());
+        } catch (ProductNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (InsufficientStockException | PurchaseInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (PurchaseQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/pending/{ticket}")
+    @Operation(
+            summary = "Consultar una compra aceptada en modo asíncrono",
+            description = "Retorna PENDING mientras la compra espera ser guardada, y después CREATED con el id "
+                    + "de la compra o REJECTED con el motivo. Con clientId (incluido en el Location del 202) "
+                    + "también se encuentran las compras ya guardadas que aceptó otra instancia, antes de un "
+                    + "reinicio o cuyo ticket ya salió de la memoria"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Estado de la compra",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = PurchaseTicket.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Ticket desconocido o modo asíncrono desactivado",
+            content = @Content
+    )
+    public ResponseEntity<PurchaseTicket> getTicket(
+            @Parameter(description = "Ticket devuelto al aceptar la compra", required = true)
+            @PathVariable String ticket,
+            @Parameter(description = "ID del cliente de la compra", example = "CLI001")
+            @RequestParam(name = "clientId", required = false) String clientId) {
+        return asyncPurchaseService.flatMap(service -> service.getTicket(ticket, clientId))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
-}
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Crear compras por lotes",
+            description = "Registra varias compras en una sola transacción (máximo 5000) y retorna el resultado de cada una. "
+                    + "Las compras sin stock suficiente se rechazan sin afectar al resto del lote"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Lote procesado; revisar el estado de cada compra",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = PurchaseResult.class)
+            )
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "El lote supera el tamaño máximo",
+            content = @Content
+    )
+    public ResponseEntity<?> saveAll(
+            @org.springframework.web.bind.annotation.RequestBody List<Purchase> purchases) {
+        try {
+            // Las cargas por lotes no usan Idempotency-Key
+            purchases.forEach(purchase -> purchase.setIdempotencyKey(null));
+            return ResponseEntity.ok(purchaseService.saveAll(purchases));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tecdesoftware.market.web.export;
+
+import java.util.Locale;
+
+// Lectura del header Accept-Encoding: lista de codificaciones separadas por coma, cada una con un
+// peso q opcional ("gzip;q=0.8"). q=0 significa "no aceptable"; "*" vale para las no nombradas.
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    public static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double q = quality(parts);
+            if (coding.equals("*")) {
+                any = q;
+            } else {
+                // Nombrada más de una vez, vale la de mayor peso
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    // Sin q el peso es 1; un q mal formado se toma como 0 para no comprimir sin estar seguros
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int equals = parameter.indexOf('=');
+            if (equals < 0 || !parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                continue;
+            }
+            try {
+                double q = Double.parseDouble(parameter.substring(equals + 1).trim());
+                return q >= 0 && q <= 1 ? q : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 1;
+    }
+}
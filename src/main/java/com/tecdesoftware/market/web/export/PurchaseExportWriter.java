@@ -0,0 +1,181 @@
+package com.tecdesoftware.market.web.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+// Escribe las filas de la exportación de compras a medida que llegan. En memoria queda solo el
+// búfer de salida (y, en NDJSON, los ítems de la compra actual), sin importar cuántas filas sean.
+public abstract class PurchaseExportWriter implements Consumer<PurchaseLine>, Closeable {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer writer;
+
+    protected PurchaseExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public static PurchaseExportWriter of(String format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case NDJSON -> new Ndjson(out, objectMapper);
+            default -> throw new IllegalArgumentException("Formato no soportado: " + format);
+        };
+    }
+
+    public static String contentType(String format) {
+        return NDJSON.equals(format) ? "application/x-ndjson" : "text/csv; charset=UTF-8";
+    }
+
+    @Override
+    public void accept(PurchaseLine line) {
+        try {
+            write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void write(PurchaseLine line) throws IOException;
+
+    // Completa lo pendiente y vacía el búfer; no cierra la salida (la maneja quien la abrió)
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    // Una fila por ítem, con los datos de la compra repetidos
+    private static final class Csv extends PurchaseExportWriter {
+
+        private Csv(OutputStream out) throws IOException {
+            super(out);
+            writer.write("purchase_id,client_id,date,payment_method,comment,state,product_id,quantity,total,item_active\n");
+        }
+
+        @Override
+        protected void write(PurchaseLine line) throws IOException {
+            writer.write(Integer.toString(line.getPurchaseId()));
+            writer.write(',');
+            field(line.getClientId());
+            writer.write(',');
+            field(line.getDate());
+            writer.write(',');
+            field(line.getPaymentMethod());
+            writer.write(',');
+            field(line.getComment());
+            writer.write(',');
+            field(line.getState());
+            writer.write(',');
+            field(line.getProductId());
+            writer.write(',');
+            field(line.getQuantity());
+            writer.write(',');
+            field(line.getTotal());
+            writer.write(',');
+            field(line.getItemActive());
+            writer.write('\n');
+        }
+
+        // RFC 4180: entre comillas si tiene separadores, comillas o saltos de línea; null queda vacío
+        private void field(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            boolean quote = false;
+            for (int i = 0; i < text.length() && !quote; i++) {
+                char c = text.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    // Una compra por línea con sus ítems, igual que en GET /purchases. Las filas llegan ordenadas por
+    // compra: cuando cambia el id se escribe la anterior.
+    private static final class Ndjson extends PurchaseExportWriter {
+
+        private final JsonGenerator generator;
+        private final ObjectWriter objectWriter;
+        private Purchase current;
+
+        private Ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            super(out);
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cada compra termina en '\n'; sin el espacio que Jackson pone entre valores de nivel raíz
+            this.generator.setRootValueSeparator(null);
+            // Sin flush por compra: el búfer se vacía cuando se llena
+            this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        protected void write(PurchaseLine line) throws IOException {
+            if (current != null && current.getPurchaseId() != line.getPurchaseId()) {
+                writeCurrent();
+            }
+            if (current == null) {
+                current = new Purchase();
+                current.setPurchaseId(line.getPurchaseId());
+                current.setClientId(line.getClientId());
+                current.setDate(line.getDate());
+                current.setPaymentMethod(line.getPaymentMethod());
+                current.setComment(line.getComment());
+                current.setState(line.getState());
+                current.setItems(new ArrayList<>());
+            }
+            if (line.getProductId() != null) {
+                PurchaseItem item = new PurchaseItem();
+                item.setProductId(line.getProductId());
+                item.setQuantity(line.getQuantity() != null ? line.getQuantity() : 0);
+                item.setTotal(line.getTotal());
+                item.setActive(Boolean.TRUE.equals(line.getItemActive()));
+                current.getItems().add(item);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (current != null) {
+                writeCurrent();
+            }
+            generator.flush();
+            super.finish();
+        }
+
+        private void writeCurrent() throws IOException {
+            objectWriter.writeValue(generator, current);
+            generator.writeRaw('\n');
+            current = null;
+        }
+    }
+}
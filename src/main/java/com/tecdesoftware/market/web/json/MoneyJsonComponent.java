@@ -0,0 +1,42 @@
+package com.tecdesoftware.market.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.tecdesoftware.market.domain.Money;
+import io.swagger.v3.oas.models.media.NumberSchema;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// En el JSON los montos siguen siendo números con decimales ("price": 25.50)
+@JsonComponent
+public class MoneyJsonComponent {
+
+    static {
+        // Swagger documenta Money como número en lugar de un objeto con minorUnits
+        SpringDocUtils.getConfig().replaceWithSchema(Money.class, new NumberSchema().example(25.50));
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toString());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                return Money.parse(parser.getText().trim());
+            } catch (NumberFormatException | ArithmeticException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), "monto inválido");
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tecdesoftware.market.web.sse;
+
+import com.tecdesoftware.market.domain.dto.StockAlert;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Mantiene las conexiones SSE abiertas y les reenvía cada aviso de stock bajo.
+// Los avisos se publican en el afterCommit de la compra: el envío va a un hilo propio para que
+// un suscriptor lento no demore las compras. Si la cola se llena, se descarta el aviso más viejo.
+@Component
+public class StockAlertBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAlertBroadcaster.class);
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor sender;
+
+    @Value("${market.stock.alert-stream-timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public StockAlertBroadcaster(@Value("${market.stock.alert-queue-capacity:1000}") int queueCapacity) {
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stock-alerts");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    log.warn("Cola de avisos de stock llena, se descarta el más viejo");
+                    if (!pool.isShutdown()) {
+                        pool.getQueue().poll();
+                        pool.execute(runnable);
+                    }
+                });
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onStockAlert(StockAlert alert) {
+        sender.execute(() -> send(alert));
+    }
+
+    private void send(StockAlert alert) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("stock-alert").data(alert));
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+-- Esquema inicial del mercado (compatible con PostgreSQL y H2)
+
+CREATE TABLE categorias (
+    id_categoria INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    descripcion  VARCHAR(255),
+    estado       BOOLEAN
+);
+
+CREATE TABLE productos (
+    id_producto    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre         VARCHAR(45),
+    id_categoria   INTEGER REFERENCES categorias (id_categoria),
+    codigo_barras  VARCHAR(150),
+    precio_venta   NUMERIC(16, 2),
+    cantidad_stock INTEGER,
+    estado         BOOLEAN
+);
+
+CREATE TABLE clientes (
+    id                 VARCHAR(255) PRIMARY KEY,
+    nombre             VARCHAR(255),
+    apellidos          VARCHAR(255),
+    celular            BIGINT,
+    direccion          VARCHAR(255),
+    correo_electronico VARCHAR(255),
+    contrasena         VARCHAR(255)
+);
+
+CREATE SEQUENCE compras_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE compras (
+    id_compra  INTEGER PRIMARY KEY,
+    id_cliente VARCHAR(255) REFERENCES clientes (id),
+    fecha      TIMESTAMP,
+    medio_pago VARCHAR(255),
+    comentario VARCHAR(255),
+    estado     VARCHAR(255)
+);
+
+CREATE TABLE compras_productos (
+    id_compra   INTEGER REFERENCES compras (id_compra),
+    id_producto INTEGER REFERENCES productos (id_producto),
+    cantidad    INTEGER,
+    total       DOUBLE PRECISION,
+    estado      BOOLEAN,
+    PRIMARY KEY (id_compra, id_producto)
+);
+
+CREATE TABLE resumen_clientes (
+    id_cliente       VARCHAR(255) PRIMARY KEY,
+    total_gastado    DOUBLE PRECISION,
+    cantidad_compras INTEGER,
+    ultima_compra    TIMESTAMP
+);
+
+CREATE TABLE resumen_cliente_productos (
+    id_cliente  VARCHAR(255),
+    id_producto INTEGER,
+    cantidad    INTEGER,
+    total       DOUBLE PRECISION,
+    PRIMARY KEY (id_cliente, id_producto)
+);
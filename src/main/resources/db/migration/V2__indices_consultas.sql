@@ -0,0 +1,16 @@
+-- Índices para los query methods de los repositorios
+
+-- ProductoCrudRepository.findByIdCategoriaOrderByNombreAsc: filtra por categoría y ya sale ordenado por nombre
+CREATE INDEX idx_productos_categoria_nombre ON productos (id_categoria, nombre);
+
+-- ProductoCrudRepository.findByCantidadStockLessThanAndEstado: igualdad en estado y rango en stock
+CREATE INDEX idx_productos_estado_stock ON productos (estado, cantidad_stock);
+
+-- CompraCrudRepository.findByIdCliente y findRecentIds (últimas compras del cliente por fecha)
+CREATE INDEX idx_compras_cliente_fecha ON compras (id_cliente, fecha);
+
+-- compras_productos.id_producto (la PK empieza por id_compra)
+CREATE INDEX idx_compras_productos_producto ON compras_productos (id_producto);
+
+-- ClienteCrudRepository.findByCorreoElectronico: el correo identifica al cliente en el login
+CREATE UNIQUE INDEX uq_clientes_correo ON clientes (correo_electronico);
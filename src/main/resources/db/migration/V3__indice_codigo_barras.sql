@@ -0,0 +1,2 @@
+-- ProductoCrudRepository.findFirstByCodigoBarrasAndEstado: respaldo de /products/barcode mientras se carga el índice
+CREATE INDEX idx_productos_codigo_barras ON productos (codigo_barras);
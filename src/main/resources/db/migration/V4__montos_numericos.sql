@@ -0,0 +1,5 @@
+-- Los montos pasan de DOUBLE PRECISION a NUMERIC(16, 2), la misma escala que precio_venta.
+-- Las entidades los leen como Money (centavos en un long) a través de MoneyConverter.
+ALTER TABLE compras_productos ALTER COLUMN total SET DATA TYPE NUMERIC(16, 2);
+ALTER TABLE resumen_clientes ALTER COLUMN total_gastado SET DATA TYPE NUMERIC(16, 2);
+ALTER TABLE resumen_cliente_productos ALTER COLUMN total SET DATA TYPE NUMERIC(16, 2);
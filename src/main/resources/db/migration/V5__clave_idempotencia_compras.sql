@@ -0,0 +1,4 @@
+-- Idempotency-Key de POST /purchases: respaldo en la base de la deduplicación en memoria.
+-- Las compras sin clave (NULL) no chocan entre sí.
+ALTER TABLE compras ADD COLUMN clave_idempotencia VARCHAR(100);
+CREATE UNIQUE INDEX uq_compras_cliente_clave ON compras (id_cliente, clave_idempotencia);
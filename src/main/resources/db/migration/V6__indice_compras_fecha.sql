@@ -0,0 +1,2 @@
+-- CompraRepository.streamLines (exportación de compras por rango de fechas, ordenada por fecha)
+CREATE INDEX idx_compras_fecha ON compras (fecha);
@@ -0,0 +1,3 @@
+-- Idempotency-Key de POST /purchases: SHA-256 (hex) del contenido del primer envío, para rechazar un reintento
+-- que reutiliza la clave con otra compra. Las compras anteriores quedan en NULL y no se comparan.
+ALTER TABLE compras ADD COLUMN huella_solicitud VARCHAR(64);
@@ -0,0 +1,23 @@
+package com.tecdesoftware.market.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Con la propiedad presente pero sin URLs no se instala el enrutamiento a réplicas
+class ReplicaDataSourceConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(ReplicaDataSourceConfig.class);
+
+    @Test
+    void staysOffWithoutReplicaUrls() {
+        for (String urls : new String[]{"", " ", ", ,"}) {
+            runner.withPropertyValues(ReplicaDataSourceConfig.URLS_PROPERTY + "=" + urls)
+                    .run(context -> assertEquals(0, context.getBeanNamesForType(ReplicaRoutingDataSource.class).length,
+                            "Se activó con '" + urls + "'"));
+        }
+        runner.run(context -> assertEquals(0, context.getBeanNamesForType(ReplicaRoutingDataSource.class).length));
+    }
+}
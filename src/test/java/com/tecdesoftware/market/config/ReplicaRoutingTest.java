@@ -0,0 +1,150 @@
+package com.tecdesoftware.market.config;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.service.ProductService;
+import com.tecdesoftware.market.domain.service.PurchaseService;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dos réplicas H2 en memoria (cada una con un producto que solo existe en ella) y una tercera caída
+@SpringBootTest(properties = {
+        "market.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_1 + "," + ReplicaRoutingTest.REPLICA_2
+                + ",jdbc:h2:tcp://localhost:1/caida",
+        "market.datasource.replicas.connection-timeout-ms=250",
+        "market.datasource.replicas.retry-after-ms=60000"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingTest {
+
+    static final String REPLICA_1 = "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @BeforeAll
+    static void createReplicas() throws Exception {
+        createReplica(REPLICA_1, 1001);
+        createReplica(REPLICA_2, 1002);
+    }
+
+    // Se ejecuta primero: después de una compra sus productos se leen del primario por unos segundos
+    @Test
+    @Order(1)
+    void readOnlyQueriesAlternateBetweenHealthyReplicas() {
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            List<Integer> ids = productService.getAll().stream().map(Product::getProductId).toList();
+            // Cada lectura sale entera de una réplica, nunca del primario
+            assertTrue(ids.contains(1001) ^ ids.contains(1002), "ids: " + ids);
+            seen.addAll(ids);
+        }
+        assertTrue(seen.contains(1001) && seen.contains(1002));
+        assertEquals(2, replicaDataSource.availableReplicas());
+    }
+
+    @Test
+    @Order(2)
+    void clientSeesOwnPurchaseRightAfterSaving() {
+        String clientId = createClient("CLI-REPLICA", "replica@test.com");
+        int productId = createProduct();
+
+        purchaseService.save(purchase(clientId, productId));
+
+        // Las réplicas no tienen al cliente: la compra solo puede venir del primario
+        assertEquals(1, purchaseService.getByClient(clientId).orElseThrow().size());
+    }
+
+    // Una compra manda al primario solo sus productos: el resto del catálogo se sigue leyendo de las réplicas
+    @Test
+    @Order(3)
+    void purchaseDoesNotRouteWholeCatalogToPrimary() {
+        String clientId = createClient("CLI-REPLICA-2", "replica2@test.com");
+        int productId = createProduct();
+
+        purchaseService.save(purchase(clientId, productId));
+
+        // Las réplicas no tienen el producto: solo puede venir del primario
+        assertEquals(9, productService.getProduct(productId).orElseThrow().getStock());
+        List<Integer> ids = productService.getAll().stream().map(Product::getProductId).toList();
+        assertTrue(ids.contains(1001) ^ ids.contains(1002), "ids: " + ids);
+    }
+
+    private String createClient(String clientId, String email) {
+        Cliente cliente = new Cliente();
+        cliente.setId(clientId);
+        cliente.setCorreoElectronico(email);
+        clienteCrudRepository.save(cliente);
+        return clientId;
+    }
+
+    private int createProduct() {
+        Producto producto = new Producto();
+        producto.setNombre("Producto primario");
+        producto.setPrecioVenta(Money.ofMinor(500));
+        producto.setCantidadStock(10);
+        producto.setEstado(true);
+        return productoCrudRepository.save(producto).getIdProducto();
+    }
+
+    private static void createReplica(String url, int productId) throws Exception {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO productos (id_producto, nombre, precio_venta, cantidad_stock, estado) "
+                    + "VALUES (" + productId + ", 'Solo en réplica', 1.00, 5, TRUE)");
+        }
+    }
+
+    private Purchase purchase(String clientId, int productId) {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setActive(true);
+
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(LocalDateTime.now());
+        purchase.setPaymentMethod("E");
+        purchase.setState("P");
+        purchase.setItems(new ArrayList<>(List.of(item)));
+        return purchase;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tecdesoftware.market.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void parsesAndFormatsWithTwoDecimals() {
+        assertEquals(2550, Money.parse("25.5").getMinorUnits());
+        assertEquals(2500, Money.parse("25").getMinorUnits());
+        assertEquals(-5, Money.parse("-0.05").getMinorUnits());
+        assertEquals("25.50", Money.parse("25.5").toString());
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+    }
+
+    @Test
+    void roundsExtraDecimalsHalfUp() {
+        assertEquals(1001, Money.parse("10.005").getMinorUnits());
+        assertEquals(150, Money.parse("1.5e0").getMinorUnits());
+        assertEquals(Money.parse("0.30"), Money.of(new BigDecimal("0.299")));
+    }
+
+    @Test
+    void sumsWithoutFloatingPointDrift() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.parse("0.10"));
+        }
+        assertEquals(Money.parse("1.00"), total);
+        assertEquals(Money.parse("76.50"), Money.parse("25.50").times(3));
+    }
+
+    @Test
+    void rejectsInvalidAmountsAndOverflow() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    // En el límite del camino rápido: 17 dígitos sin decimales ya no entran en centavos
+    @Test
+    void longAmountsFailInsteadOfWrapping() {
+        assertEquals(999999999999999900L, Money.parse("9999999999999999").getMinorUnits());
+        assertEquals(999999999999999999L, Money.parse("9999999999999999.99").getMinorUnits());
+        assertEquals(9000000000000000000L, Money.parse("90000000000000000").getMinorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.parse("99999999999999999"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("-99999999999999999"));
+    }
+}
@@ -0,0 +1,227 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.PurchaseTicket;
+import com.tecdesoftware.market.domain.dto.StockAlert;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.CompraCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "market.purchases.async.enabled=true",
+        "market.purchases.async.batch-size=10",
+        "market.purchases.async.retry-delay-ms=50"
+})
+class AsyncPurchaseServiceTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @TempDir
+    static Path logDir;
+
+    @DynamicPropertySource
+    static void asyncLog(DynamicPropertyRegistry registry) {
+        registry.add("market.purchases.async.log-dir", () -> logDir.toString());
+    }
+
+    @Autowired
+    private AsyncPurchaseService asyncPurchaseService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ScarceProductIndex scarceProductIndex;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @Autowired
+    private CompraCrudRepository compraCrudRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void drainerSavesAcceptedPurchases() throws Exception {
+        String clientId = createClient("CLI-ASYNC-1");
+        int productId = createProduct(100);
+
+        List<String> tickets = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tickets.add(asyncPurchaseService.accept(purchase(clientId, productId)).getTicket());
+        }
+
+        for (String ticket : tickets) {
+            PurchaseTicket result = awaitResult(asyncPurchaseService, ticket);
+            assertEquals(PurchaseTicket.CREATED, result.getStatus());
+            assertTrue(purchaseRepository.getByIdempotencyKey(clientId, AsyncPurchaseService.KEY_PREFIX + ticket).isPresent());
+        }
+        assertEquals(5, compraCrudRepository.findByIdCliente(clientId).orElseThrow().size());
+        assertEquals(95, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    // Reinicio: se reprocesa solo lo que quedó después del checkpoint, y lo que ya estaba guardado no se repite
+    @Test
+    void restartReplaysEntriesAfterCheckpointOnce(@TempDir Path restartDir) throws Exception {
+        String clientId = createClient("CLI-ASYNC-2");
+        int productId = createProduct(100);
+
+        try (PurchaseLog purchaseLog = new PurchaseLog(restartDir, 1024 * 1024)) {
+            long first = purchaseLog.append(payload(clientId, productId, "antes-del-checkpoint"));
+            purchaseLog.append(payload(clientId, productId, "pendiente"));
+            long last = purchaseLog.append(payload(clientId, productId, "guardada-antes-del-corte"));
+            purchaseLog.awaitDurable(last);
+            purchaseLog.checkpoint(first);
+        }
+        // Se confirmó en la base pero el proceso se cortó antes de avanzar el checkpoint
+        Purchase committed = purchase(clientId, productId);
+        committed.setIdempotencyKey(AsyncPurchaseService.KEY_PREFIX + "guardada-antes-del-corte");
+        int committedId = purchaseService.save(committed).getPurchaseId();
+
+        AsyncPurchaseService restarted = new AsyncPurchaseService(objectMapper, meterRegistry,
+                restartDir.toString(), 1, 1000, 10, 50, 24, 1000);
+        beanFactory.autowireBean(restarted);
+        restarted.startDrainer();
+        try {
+            assertEquals(PurchaseTicket.CREATED, awaitResult(restarted, "pendiente").getStatus());
+            PurchaseTicket deduplicated = awaitResult(restarted, "guardada-antes-del-corte");
+            assertEquals(PurchaseTicket.CREATED, deduplicated.getStatus());
+            assertEquals(committedId, deduplicated.getPurchaseId());
+            assertTrue(restarted.getTicket("antes-del-checkpoint", null).isEmpty());
+        } finally {
+            restarted.stop();
+        }
+
+        assertEquals(2, compraCrudRepository.findByIdCliente(clientId).orElseThrow().size());
+        assertEquals(98, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+        try (PurchaseLog purchaseLog = new PurchaseLog(restartDir, 1024 * 1024)) {
+            assertTrue(purchaseLog.recovered().isEmpty());
+        }
+    }
+
+    // La compra se confirma y después falla un afterCommit: el reintento la encuentra por la clave
+    // en lugar de chocar con el índice único y rechazarla
+    @Test
+    void purchaseCommittedBeforeFailureIsNotRejectedOnRetry() throws Exception {
+        String clientId = createClient("CLI-ASYNC-3");
+        int productId = createProduct(15);
+        productService.getProduct(productId).ifPresent(scarceProductIndex::put);
+        FailingStockAlerts.FAIL_ONCE.add(productId);
+
+        Purchase purchase = purchase(clientId, productId);
+        purchase.getItems().get(0).setQuantity(10);
+        String ticket = asyncPurchaseService.accept(purchase).getTicket();
+
+        PurchaseTicket result = awaitResult(asyncPurchaseService, ticket);
+        assertTrue(FailingStockAlerts.FAIL_ONCE.isEmpty());
+        assertEquals(PurchaseTicket.CREATED, result.getStatus());
+        assertEquals(1, compraCrudRepository.findByIdCliente(clientId).orElseThrow().size());
+        assertEquals(5, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    // El aviso de stock bajo se publica en el afterCommit de la compra
+    @TestConfiguration
+    static class FailingStockAlerts {
+
+        static final Set<Integer> FAIL_ONCE = ConcurrentHashMap.newKeySet();
+
+        @EventListener
+        public void onStockAlert(StockAlert alert) {
+            if (FAIL_ONCE.remove(alert.getProductId())) {
+                throw new IllegalStateException("Falla después del commit");
+            }
+        }
+    }
+
+    private static PurchaseTicket awaitResult(AsyncPurchaseService service, String ticket) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            PurchaseTicket result = service.getTicket(ticket, null).orElseThrow();
+            if (!PurchaseTicket.PENDING.equals(result.getStatus())) {
+                return result;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("La compra " + ticket + " sigue pendiente");
+    }
+
+    private byte[] payload(String clientId, int productId, String ticket) throws Exception {
+        Purchase purchase = purchase(clientId, productId);
+        purchase.setIdempotencyKey(AsyncPurchaseService.KEY_PREFIX + ticket);
+        return objectMapper.writeValueAsBytes(purchase);
+    }
+
+    private String createClient(String id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setCorreoElectronico(id.toLowerCase() + "@test.com");
+        clienteCrudRepository.save(cliente);
+        return id;
+    }
+
+    private int createProduct(int stock) {
+        Producto producto = new Producto();
+        producto.setNombre("Producto asíncrono");
+        producto.setPrecioVenta(Money.ofMinor(250));
+        producto.setCantidadStock(stock);
+        producto.setEstado(true);
+        return productoCrudRepository.save(producto).getIdProducto();
+    }
+
+    private Purchase purchase(String clientId, int productId) {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setActive(true);
+
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(LocalDateTime.now());
+        purchase.setPaymentMethod("E");
+        purchase.setState("P");
+        purchase.setItems(new ArrayList<>(List.of(item)));
+        return purchase;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.dto.BarcodeSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BarcodeIndexTest {
+
+    private static final int PRODUCTS = 200_000;
+
+    @Test
+    void keepsEveryCodeAcrossGrowthAndRemovals() {
+        BarcodeIndex index = loaded();
+        for (int i = 1; i <= PRODUCTS; i++) {
+            index.put(product(i, barcode(i), Money.ofMinor(i % 1000 * 100 + 99), i % 50));
+        }
+        // Borrar la mitad obliga a correr entradas de los sondeos
+        for (int i = 2; i <= PRODUCTS; i += 2) {
+            index.remove(i);
+        }
+
+        assertEquals(PRODUCTS / 2, index.size());
+        for (int i = 1; i <= PRODUCTS; i++) {
+            if (i % 2 == 0) {
+                assertTrue(index.find(barcode(i)).isEmpty());
+            } else {
+                BarcodeSnapshot snapshot = index.find(barcode(i)).orElseThrow();
+                assertEquals(i, snapshot.getProductId());
+                assertEquals(Money.ofMinor(i % 1000 * 100 + 99), snapshot.getPrice());
+            }
+        }
+    }
+
+    @Test
+    void followsBarcodeChangesStockAndNonNumericCodes() {
+        BarcodeIndex index = loaded();
+        index.put(product(1, "0075", Money.parse("10.50"), 3));
+        index.put(product(2, "ABC-1", Money.parse("7"), 1));
+
+        index.put(product(1, "0076", Money.parse("10.50"), 3));
+        index.adjustStock(1, -2);
+
+        assertTrue(index.find("0075").isEmpty());
+        // Los ceros a la izquierda forman parte del código
+        assertTrue(index.find("76").isEmpty());
+        assertEquals(1, index.find("0076").orElseThrow().getStock());
+        assertEquals(2, index.find("ABC-1").orElseThrow().getProductId());
+    }
+
+    @Test
+    void keepsChangesMadeWhileLoading() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        repository.save(product(1, "0075", Money.parse("10.50"), 5));
+        repository.save(product(2, "0076", Money.parse("3"), 5));
+        repository.save(product(3, "0077", Money.parse("4"), 5));
+        BarcodeIndex index = new BarcodeIndex();
+        // Al entregar la fila 1 ya se vendió el 2 y se desactivó el 3: el cursor trae las filas viejas
+        repository.afterRow(product -> {
+            if (product.getProductId() == 1) {
+                repository.save(product(2, "0076", Money.parse("3"), 2));
+                index.adjustStock(2, -3);
+                Product inactive = product(3, "0077", Money.parse("4"), 5);
+                inactive.setActive(false);
+                repository.save(inactive);
+                index.put(inactive);
+            }
+        });
+
+        index.load(repository);
+
+        assertEquals(5, index.find("0075").orElseThrow().getStock());
+        assertEquals(2, index.find("0076").orElseThrow().getStock());
+        assertTrue(index.find("0077").isEmpty());
+        index.adjustStock(2, -1);
+        assertEquals(1, index.find("0076").orElseThrow().getStock());
+    }
+
+    // Índice ya cargado (vacío): los cambios se aplican directo
+    private static BarcodeIndex loaded() {
+        BarcodeIndex index = new BarcodeIndex();
+        index.load(new InMemoryProductRepository());
+        return index;
+    }
+
+    private static String barcode(int i) {
+        return String.format("%013d", 7_500_000_000_000L + i);
+    }
+
+    private static Product product(int id, String barcode, Money price, int stock) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName("Producto " + id);
+        product.setBarcode(barcode);
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setActive(true);
+        return product;
+    }
+}
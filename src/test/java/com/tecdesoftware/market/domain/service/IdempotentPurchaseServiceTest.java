@@ -0,0 +1,147 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.SavedPurchase;
+import com.tecdesoftware.market.domain.exception.IdempotencyKeyReusedException;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.CompraCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class IdempotentPurchaseServiceTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private IdempotentPurchaseService idempotentPurchaseService;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @Autowired
+    private CompraCrudRepository compraCrudRepository;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void concurrentRetriesWithSameKeyCreateOnePurchase() throws Exception {
+        String clientId = createClient("CLI-IDEMP");
+        int productId = createProduct(100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SavedPurchase>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return idempotentPurchaseService.save(purchase(clientId, productId), "pos-1-0001");
+            }));
+        }
+        start.countDown();
+
+        List<SavedPurchase> results = new ArrayList<>();
+        for (Future<SavedPurchase> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        int purchaseId = results.get(0).getPurchase().getPurchaseId();
+        results.forEach(result -> assertEquals(purchaseId, result.getPurchase().getPurchaseId()));
+        assertEquals(THREADS - 1, results.stream().filter(SavedPurchase::isReplayed).count());
+        assertEquals(1, compraCrudRepository.findByIdCliente(clientId).orElseThrow().size());
+        assertEquals(98, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    @Test
+    void reusingKeyWithAnotherPurchaseIsRejected() {
+        String clientId = createClient("CLI-IDEMP-2");
+        int productId = createProduct(100);
+        SavedPurchase first = idempotentPurchaseService.save(purchase(clientId, productId), "pos-2-0001");
+
+        Purchase other = purchase(clientId, productId);
+        other.getItems().get(0).setQuantity(5);
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotentPurchaseService.save(other, "pos-2-0001"));
+
+        // El mismo contenido con otra fecha es un reintento válido
+        Purchase retry = purchase(clientId, productId);
+        retry.setDate(retry.getDate().plusMinutes(1));
+        SavedPurchase replayed = idempotentPurchaseService.save(retry, "pos-2-0001");
+        assertTrue(replayed.isReplayed());
+        assertEquals(first.getPurchase().getPurchaseId(), replayed.getPurchase().getPurchaseId());
+        assertEquals(98, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    // Con la clave ya fuera de la memoria (u otra instancia) la huella se compara con la guardada en la base
+    @Test
+    void reusedKeyIsRejectedAfterEviction() {
+        String clientId = createClient("CLI-IDEMP-3");
+        int productId = createProduct(100);
+        idempotentPurchaseService.save(purchase(clientId, productId), "pos-3-0001");
+        IdempotentPurchaseService otherInstance = new IdempotentPurchaseService(new SimpleMeterRegistry(), 100, 24, 1000);
+        beanFactory.autowireBean(otherInstance);
+
+        Purchase other = purchase(clientId, createProduct(100));
+        assertThrows(IdempotencyKeyReusedException.class, () -> otherInstance.save(other, "pos-3-0001"));
+        assertTrue(otherInstance.save(purchase(clientId, productId), "pos-3-0001").isReplayed());
+        assertEquals(1, compraCrudRepository.findByIdCliente(clientId).orElseThrow().size());
+    }
+
+    private String createClient(String id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setCorreoElectronico(id.toLowerCase() + "@test.com");
+        clienteCrudRepository.save(cliente);
+        return id;
+    }
+
+    private int createProduct(int stock) {
+        Producto producto = new Producto();
+        producto.setNombre("Producto idempotente");
+        producto.setPrecioVenta(Money.ofMinor(250));
+        producto.setCantidadStock(stock);
+        producto.setEstado(true);
+        return productoCrudRepository.save(producto).getIdProducto();
+    }
+
+    private Purchase purchase(String clientId, int productId) {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(productId);
+        item.setQuantity(2);
+        item.setActive(true);
+
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(LocalDateTime.now());
+        purchase.setPaymentMethod("E");
+        purchase.setState("P");
+        purchase.setItems(new ArrayList<>(List.of(item)));
+        return purchase;
+    }
+}
@@ -0,0 +1,84 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Product;
+import com.tecdesoftware.market.domain.repository.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Repositorio de productos en memoria para probar la carga de los índices sin base de datos.
+// streamAll recorre una foto tomada al empezar, como un cursor que no ve los cambios posteriores.
+class InMemoryProductRepository implements ProductRepository {
+
+    private final Map<Integer, Product> products = new TreeMap<>();
+    // Se ejecuta después de entregar cada fila de streamAll, para simular cambios durante la carga
+    private Consumer<Product> afterRow = product -> { };
+
+    void afterRow(Consumer<Product> afterRow) {
+        this.afterRow = afterRow;
+    }
+
+    @Override
+    public synchronized List<Product> getAll() {
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public List<Product> getPage(int afterId, int size) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void streamAll(Consumer<Product> consumer) {
+        for (Product product : getAll()) {
+            consumer.accept(product);
+            afterRow.accept(product);
+        }
+    }
+
+    @Override
+    public Optional<List<Product>> getByCategory(int categoryId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Optional<List<Product>> getScarceProducts(int quantity) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized Optional<Product> getProduct(int productId) {
+        return Optional.ofNullable(products.get(productId));
+    }
+
+    @Override
+    public Optional<Product> getByBarcode(String barcode) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized Product save(Product product) {
+        products.put(product.getProductId(), product);
+        return product;
+    }
+
+    @Override
+    public boolean decreaseStock(int productId, int quantity) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<Integer, Integer> lockStock(Collection<Integer> productIds) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public synchronized void delete(int productId) {
+        products.remove(productId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private static final String IP = "10.0.0.1";
+
+    @Test
+    void rejectsAttemptsOverTheEmailLimit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiter limiter = new LoginRateLimiter(meterRegistry, 3, 100, 60);
+        for (int i = 0; i < 3; i++) {
+            limiter.check("kepler@me.com", IP);
+        }
+
+        // El correo se compara sin mayúsculas
+        TooManyLoginAttemptsException e = assertThrows(TooManyLoginAttemptsException.class,
+                () -> limiter.check("Kepler@Me.com", IP));
+        assertEquals(60, e.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.counter("auth.login.throttled").count());
+        // Otro correo desde la misma IP sigue entrando
+        assertDoesNotThrow(() -> limiter.check("otro@me.com", IP));
+    }
+
+    @Test
+    void rejectsAttemptsOverTheIpLimitAcrossEmails() {
+        LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(), 100, 3, 60);
+        for (int i = 0; i < 3; i++) {
+            limiter.check("usuario" + i + "@me.com", IP);
+        }
+
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.check("nuevo@me.com", IP));
+        assertDoesNotThrow(() -> limiter.check("nuevo@me.com", "10.0.0.2"));
+    }
+
+    @Test
+    void allowsAttemptsAgainAfterTheWindow() throws InterruptedException {
+        LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(), 1, 100, 1);
+        limiter.check("kepler@me.com", IP);
+        assertThrows(TooManyLoginAttemptsException.class, () -> limiter.check("kepler@me.com", IP));
+
+        Thread.sleep(1_100);
+
+        assertDoesNotThrow(() -> limiter.check("kepler@me.com", IP));
+    }
+}
@@ -0,0 +1,85 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.exception.LoginOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordVerifierTest {
+
+    @Test
+    void failsImmediatelyWhenTheQueueIsFull() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, new SimpleMeterRegistry(), 1, 1, 5_000);
+        try {
+            CompletableFuture<Boolean> running = verifier.matches("clave", "clave");
+            CompletableFuture<Boolean> queued = verifier.matches("clave", "clave");
+            assertTrue(encoder.started.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Boolean> rejected = verifier.matches("clave", "clave");
+            assertTrue(rejected.isCompletedExceptionally());
+            assertFailsWithOverload(rejected);
+
+            encoder.release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            encoder.release.countDown();
+            verifier.shutdown();
+        }
+    }
+
+    // El plazo cuenta la espera en cola: el que no llega a calcularse también falla por sobrecarga
+    @Test
+    void failsWithOverloadWhenTheTimeoutExpires() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        PasswordVerifier verifier = new PasswordVerifier(encoder, new SimpleMeterRegistry(), 1, 10, 100);
+        try {
+            CompletableFuture<Boolean> running = verifier.matches("clave", "clave");
+            CompletableFuture<Boolean> queued = verifier.matches("clave", "clave");
+
+            assertFailsWithOverload(running);
+            assertFailsWithOverload(queued);
+        } finally {
+            encoder.release.countDown();
+            verifier.shutdown();
+        }
+    }
+
+    private static void assertFailsWithOverload(CompletableFuture<Boolean> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LoginOverloadedException.class, e.getCause());
+    }
+
+    // Compara texto plano, pero espera a que el test lo libere
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductIndexLoadTest {
+
+    @Test
+    void rereadsProductsChangedWhileStreaming() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        repository.save(product(1, 50));
+        repository.save(product(2, 50));
+        repository.save(product(3, 50));
+        ProductIndexLoad load = new ProductIndexLoad();
+        Map<Integer, Product> indexed = new HashMap<>();
+
+        // Mientras se entrega la fila 1 se confirma una compra del 2 y se borra el 3:
+        // el cursor ya tiene las filas viejas de ambos
+        repository.afterRow(product -> {
+            if (product.getProductId() == 1) {
+                repository.save(product(2, 45));
+                assertTrue(load.defer(2));
+                repository.delete(3);
+                assertTrue(load.defer(3));
+            }
+        });
+        load.run(repository, product -> indexed.put(product.getProductId(), product), indexed::remove);
+
+        assertEquals(Map.of(1, 50, 2, 45), stocks(indexed));
+        // Terminada la carga, los cambios se aplican directo en el índice
+        assertFalse(load.defer(2));
+    }
+
+    @Test
+    void rereadsAgainIfChangedDuringReread() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        repository.save(product(1, 50));
+        ProductIndexLoad load = new ProductIndexLoad();
+        Map<Integer, Product> indexed = new HashMap<>();
+        int[] rereads = {0};
+
+        repository.afterRow(product -> {
+            repository.save(product(1, 40));
+            load.defer(1);
+        });
+        load.run(repository, product -> {
+            indexed.put(product.getProductId(), product);
+            // La primera relectura coincide con otra compra confirmada
+            if (product.getStock() == 40 && rereads[0]++ == 0) {
+                repository.save(product(1, 30));
+                load.defer(1);
+            }
+        }, indexed::remove);
+
+        assertEquals(Map.of(1, 30), stocks(indexed));
+    }
+
+    private static Map<Integer, Integer> stocks(Map<Integer, Product> indexed) {
+        Map<Integer, Integer> stocks = new HashMap<>();
+        indexed.forEach((id, product) -> stocks.put(id, product.getStock()));
+        return stocks;
+    }
+
+    private static Product product(int id, int stock) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName("Producto " + id);
+        product.setStock(stock);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,119 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.load(catalog());
+    }
+
+    @Test
+    void matchesPrefixOfLastWord() {
+        assertEquals(List.of(2, 1), ids(index.search("lech", null, 10)));
+        assertEquals(List.of(1), ids(index.search("leche ent", null, 10)));
+    }
+
+    @Test
+    void ignoresAccentsAndToleratesOneTypo() {
+        assertEquals(List.of(3), ids(index.search("jabon", null, 10)));
+        assertEquals(List.of(3), ids(index.search("avnea", null, 10)));
+        assertEquals(List.of(2, 1), ids(index.search("lexhe", null, 10)));
+    }
+
+    @Test
+    void findsBarcodePrefixAndFiltersByCategory() {
+        assertEquals(List.of(2, 1), ids(index.search("750105530", null, 10)));
+        assertTrue(index.search("750105530", 2, 10).isEmpty());
+    }
+
+    // Con más coincidencias que el límite se devuelven las mejores, no las primeras que aparecen
+    @Test
+    void ranksAllMatchesBeforeApplyingTheLimit() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        // Los ids van al revés del nombre para que el orden del índice no coincida con el esperado
+        for (int i = 1; i <= 30; i++) {
+            repository.save(product(100 - i, String.format("Leche %02d", i), 1, null));
+        }
+        repository.save(product(200, "Alfajor Lechero", 1, null));
+        ProductSearchIndex large = new ProductSearchIndex();
+        large.load(repository);
+
+        List<String> exact = names(large.search("leche", null, 5));
+        assertEquals(List.of("Leche 01", "Leche 02", "Leche 03", "Leche 04", "Leche 05"), exact);
+        // Todas por prefijo: cuenta solo el nombre
+        assertEquals(List.of("Alfajor Lechero", "Leche 01", "Leche 02"), names(large.search("le", null, 3)));
+        // La coincidencia por prefijo va después de todas las exactas
+        List<String> all = names(large.search("leche", null, 31));
+        assertEquals("Alfajor Lechero", all.get(30));
+        assertEquals(all, names(large.search("leche", null, 31)));
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.put(product(1, "Yogur Natural", 1, "7501055300075"));
+        index.remove(2);
+
+        assertTrue(index.search("leche", null, 10).isEmpty());
+        assertEquals(List.of(1), ids(index.search("yogur", null, 10)));
+    }
+
+    @Test
+    void keepsChangesMadeWhileLoading() {
+        InMemoryProductRepository repository = catalog();
+        ProductSearchIndex loading = new ProductSearchIndex();
+        // Al entregar la fila 1 ya se confirmó una venta del 2: el cursor trae su stock viejo
+        repository.afterRow(product -> {
+            if (product.getProductId() == 1) {
+                Product sold = product(2, "Leche Descremada", 1, "7501055300082");
+                sold.setStock(7);
+                repository.save(sold);
+                loading.adjustStock(2, -3);
+            }
+        });
+
+        loading.load(repository);
+
+        assertEquals(7, loading.search("descremada", null, 10).get(0).getStock());
+        loading.adjustStock(2, -1);
+        assertEquals(6, loading.search("descremada", null, 10).get(0).getStock());
+    }
+
+    private static InMemoryProductRepository catalog() {
+        InMemoryProductRepository repository = new InMemoryProductRepository();
+        repository.save(product(1, "Leche Entera", 1, "7501055300075"));
+        repository.save(product(2, "Leche Descremada", 1, "7501055300082"));
+        repository.save(product(3, "Jabón de Avena", 2, "7702010000019"));
+        return repository;
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getProductId).toList();
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+
+    private static Product product(int id, String name, int categoryId, String barcode) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName(name);
+        product.setCategoryId(categoryId);
+        product.setBarcode(barcode);
+        product.setStock(10);
+        product.setActive(true);
+        return product;
+    }
+}
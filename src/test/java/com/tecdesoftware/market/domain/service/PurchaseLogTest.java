@@ -0,0 +1,128 @@
+package com.tecdesoftware.market.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PurchaseLogTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenReturnsEntriesAfterCheckpoint() throws IOException {
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 100; i++) {
+                log.awaitDurable(log.append(payload(i)));
+            }
+            log.checkpoint(60);
+        }
+
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            List<PurchaseLog.Entry> recovered = log.recovered();
+            assertEquals(40, recovered.size());
+            assertEquals(61, recovered.get(0).seq());
+            assertEquals("compra-61", text(recovered.get(0)));
+            // La secuencia continúa después de lo recuperado
+            assertEquals(101, log.append(payload(101)));
+        }
+    }
+
+    @Test
+    void checkpointDeletesSegmentsAlreadySaved() throws IOException {
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            long last = 0;
+            for (int i = 1; i <= 1000; i++) {
+                last = log.append(payload(i));
+            }
+            log.awaitDurable(last);
+            long segments = segmentCount();
+            log.checkpoint(last);
+            // Solo queda el segmento en uso
+            assertEquals(1, segmentCount());
+            assertTrue(segments > 1);
+        }
+    }
+
+    @Test
+    void tornRecordEndsRecovery() throws IOException {
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            for (int i = 1; i <= 3; i++) {
+                log.awaitDurable(log.append(payload(i)));
+            }
+        }
+        // Se corrompe el contenido del tercer registro, como si el corte lo hubiera dejado a medias
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        int recordSize = 16 + payload(1).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0}), 2L * recordSize + 16);
+        }
+
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            assertEquals(2, log.recovered().size());
+        }
+    }
+
+    @Test
+    void concurrentAppendsAreAllDurable() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        log.awaitDurable(log.append(payload(i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (PurchaseLog log = new PurchaseLog(directory, SEGMENT_SIZE)) {
+            List<PurchaseLog.Entry> recovered = log.recovered();
+            assertEquals(1600, recovered.size());
+            for (int i = 0; i < recovered.size(); i++) {
+                assertEquals(i + 1, recovered.get(i).seq());
+            }
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return String.format("compra-%02d", i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(PurchaseLog.Entry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,204 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.dto.PurchaseResult;
+import com.tecdesoftware.market.domain.exception.InsufficientStockException;
+import com.tecdesoftware.market.domain.exception.ProductNotFoundException;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class PurchaseServiceStockTest {
+
+    private static final int STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int PURCHASES_PER_THREAD = 10;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @Test
+    void concurrentPurchasesNeverOversellHotProduct() throws Exception {
+        String clientId = createClient("CLI-STOCK");
+        int productId = createProduct(STOCK);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    try {
+                        purchaseService.save(purchase(clientId, productId, 1));
+                        accepted.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(STOCK, accepted.get());
+        assertEquals(THREADS * PURCHASES_PER_THREAD - STOCK, rejected.get());
+        assertEquals(0, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    @Test
+    void rejectedPurchaseRollsBackEarlierReservations() {
+        String clientId = createClient("CLI-ROLLBACK");
+        int available = createProduct(10);
+        int scarce = createProduct(1);
+
+        Purchase purchase = purchase(clientId, available, 3);
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(scarce);
+        item.setQuantity(2);
+        item.setActive(true);
+        purchase.getItems().add(item);
+
+        assertThrows(InsufficientStockException.class, () -> purchaseService.save(purchase));
+        assertEquals(10, productoCrudRepository.findById(available).orElseThrow().getCantidadStock());
+        assertEquals(1, productoCrudRepository.findById(scarce).orElseThrow().getCantidadStock());
+    }
+
+    @Test
+    void batchRejectsOnlyPurchasesBeyondStock() {
+        String clientId = createClient("CLI-BATCH");
+        int productId = createProduct(5);
+
+        List<PurchaseResult> results = purchaseService.saveAll(List.of(
+                purchase(clientId, productId, 2),
+                purchase(clientId, productId, 4),
+                purchase(clientId, productId, 3)));
+
+        assertEquals(PurchaseResult.CREATED, results.get(0).getStatus());
+        assertEquals(PurchaseResult.REJECTED, results.get(1).getStatus());
+        assertEquals(PurchaseResult.CREATED, results.get(2).getStatus());
+        assertEquals(0, productoCrudRepository.findById(productId).orElseThrow().getCantidadStock());
+    }
+
+    @Test
+    void concurrentBatchesWithReversedProductOrderDoNotDeadlock() throws Exception {
+        String clientId = createClient("CLI-BATCH-ORDER");
+        int first = createProduct(STOCK * THREADS);
+        int second = createProduct(STOCK * THREADS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            // La mitad de los lotes lista los productos al revés
+            boolean reversed = t % 2 == 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Purchase> batch = new ArrayList<>();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    Purchase purchase = purchase(clientId, reversed ? second : first, 1);
+                    PurchaseItem item = new PurchaseItem();
+                    item.setProductId(reversed ? first : second);
+                    item.setQuantity(1);
+                    item.setActive(true);
+                    purchase.getItems().add(item);
+                    batch.add(purchase);
+                }
+                return purchaseService.saveAll(batch);
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int sold = THREADS * PURCHASES_PER_THREAD;
+        assertEquals(STOCK * THREADS - sold, productoCrudRepository.findById(first).orElseThrow().getCantidadStock());
+        assertEquals(STOCK * THREADS - sold, productoCrudRepository.findById(second).orElseThrow().getCantidadStock());
+    }
+
+    @Test
+    void unknownProductIsNotReportedAsMissingStock() {
+        String clientId = createClient("CLI-UNKNOWN");
+        int available = createProduct(10);
+
+        Purchase purchase = purchase(clientId, available, 1);
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(Integer.MAX_VALUE);
+        item.setQuantity(1);
+        item.setActive(true);
+        purchase.getItems().add(item);
+
+        assertThrows(ProductNotFoundException.class, () -> purchaseService.save(purchase));
+        assertEquals(10, productoCrudRepository.findById(available).orElseThrow().getCantidadStock());
+    }
+
+    private String createClient(String id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setCorreoElectronico(id.toLowerCase() + "@test.com");
+        clienteCrudRepository.save(cliente);
+        return id;
+    }
+
+    private int createProduct(int stock) {
+        Producto producto = new Producto();
+        producto.setNombre("Producto stock " + stock);
+        producto.setPrecioVenta(Money.ofMinor(100));
+        producto.setCantidadStock(stock);
+        producto.setEstado(true);
+        return productoCrudRepository.save(producto).getIdProducto();
+    }
+
+    private Purchase purchase(String clientId, int productId, int quantity) {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setTotal(Money.ofMinor(100).times(quantity));
+        item.setActive(true);
+
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(LocalDateTime.now());
+        purchase.setPaymentMethod("E");
+        purchase.setState("P");
+        purchase.setItems(new ArrayList<>(List.of(item)));
+        return purchase;
+    }
+}
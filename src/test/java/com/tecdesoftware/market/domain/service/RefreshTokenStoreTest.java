@@ -0,0 +1,78 @@
+package com.tecdesoftware.market.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshTokenStoreTest {
+
+    private static final String CORREO = "kepler@me.com";
+
+    @Test
+    void rotationInvalidatesTheUsedToken() {
+        RefreshTokenStore store = store(168, 10);
+        String first = store.issue(CORREO);
+
+        assertEquals(Optional.of(CORREO), store.consume(first));
+        String second = store.issue(CORREO);
+
+        assertNotEquals(first, second);
+        // Reusar el token ya rotado no sirve, el nuevo sí
+        assertTrue(store.consume(first).isEmpty());
+        assertEquals(Optional.of(CORREO), store.consume(second));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiredTokensAreRejectedAndSwept() {
+        // Vigencia cero: vencen apenas se emiten
+        RefreshTokenStore store = store(0, 10);
+        String token = store.issue(CORREO);
+        store.issue(CORREO);
+
+        assertTrue(store.consume(token).isEmpty());
+        assertEquals(1, store.size());
+        store.sweepExpired();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void keepsOnlyTheNewestTokensPerUser() {
+        RefreshTokenStore store = store(168, 3);
+        List<String> issued = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            issued.add(store.issue(CORREO));
+        }
+        String other = store.issue("otro@me.com");
+
+        assertEquals(4, store.size());
+        assertTrue(store.consume(issued.get(96)).isEmpty());
+        assertEquals(Optional.of(CORREO), store.consume(issued.get(99)));
+        assertEquals(Optional.of("otro@me.com"), store.consume(other));
+    }
+
+    @Test
+    void revokeAllClosesEverySessionOfTheUser() {
+        RefreshTokenStore store = store(168, 10);
+        String first = store.issue(CORREO);
+        String second = store.issue(CORREO);
+        String other = store.issue("otro@me.com");
+
+        store.revokeAll(CORREO);
+
+        assertTrue(store.consume(first).isEmpty());
+        assertTrue(store.consume(second).isEmpty());
+        assertEquals(Optional.of("otro@me.com"), store.consume(other));
+    }
+
+    private static RefreshTokenStore store(long ttlHours, int maxPerUser) {
+        return new RefreshTokenStore(new SimpleMeterRegistry(), ttlHours, maxPerUser);
+    }
+}
@@ -0,0 +1,82 @@
+package com.tecdesoftware.market.domain.service;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.dto.BasketStats;
+import com.tecdesoftware.market.domain.dto.SalesGroup;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SalesRollupsTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 7, 1);
+    // Más filas que un bloque de RollupTable, para que la consulta se reparta en varias tareas
+    private static final int PRODUCTS = 100_000;
+
+    @Test
+    void parallelAggregatesMatchSequentialTotals() {
+        SalesRollups rollups = new SalesRollups(4, 16);
+        int cash = rollups.methodCode("efectivo");
+        int card = rollups.methodCode("tarjeta");
+        int day = (int) FIRST_DAY.toEpochDay();
+        for (int product = 1; product <= PRODUCTS; product++) {
+            // Dos días, dos medios de pago y diez categorías; el producto 7 se repite para quedar primero
+            int quantity = product == 7 ? 1000 : 1 + product % 3;
+            rollups.addLine(day + product % 2, product, product % 10, product % 2 == 0 ? cash : card,
+                    quantity, quantity * 150L);
+            rollups.addLine(day + product % 2, product, product % 10, product % 2 == 0 ? cash : card,
+                    quantity, quantity * 150L);
+        }
+
+        long expectedUnits = 0;
+        for (int product = 1; product <= PRODUCTS; product++) {
+            expectedUnits += 2L * (product == 7 ? 1000 : 1 + product % 3);
+        }
+
+        List<SalesGroup> byCategory = rollups.salesBy(SalesRollups.BY_CATEGORY, FIRST_DAY, FIRST_DAY.plusDays(1));
+        assertEquals(10, byCategory.size());
+        assertEquals(expectedUnits, byCategory.stream().mapToLong(SalesGroup::getUnits).sum());
+        assertEquals(2L * PRODUCTS, byCategory.stream().mapToLong(SalesGroup::getLines).sum());
+        assertEquals("7", byCategory.get(0).getKey());
+
+        List<SalesGroup> byDay = rollups.salesBy(SalesRollups.BY_DAY, FIRST_DAY, FIRST_DAY.plusDays(1));
+        assertEquals(List.of("2025-07-01", "2025-07-02"), byDay.stream().map(SalesGroup::getKey).toList());
+
+        // Solo el primer día: productos pares, todos en efectivo
+        List<SalesGroup> byMethod = rollups.salesBy(SalesRollups.BY_PAYMENT_METHOD, FIRST_DAY, FIRST_DAY);
+        assertEquals(1, byMethod.size());
+        assertEquals("efectivo", byMethod.get(0).getKey());
+        assertEquals(PRODUCTS, byMethod.get(0).getLines());
+
+        List<SalesGroup> top = rollups.topProducts(FIRST_DAY, FIRST_DAY.plusDays(1), 3, true);
+        assertEquals(3, top.size());
+        assertEquals("7", top.get(0).getKey());
+        assertEquals(2000, top.get(0).getUnits());
+        assertEquals(Money.ofMinor(300_000), top.get(0).getRevenue());
+        assertEquals(6, top.get(1).getUnits());
+    }
+
+    @Test
+    void basketStatsAverageOverPurchases() {
+        SalesRollups rollups = new SalesRollups(2, 16);
+        int cash = rollups.methodCode("efectivo");
+        int day = (int) FIRST_DAY.toEpochDay();
+        rollups.addBasket(day, cash, 1, 2, 1_000);
+        rollups.addBasket(day, cash, 3, 4, 3_000);
+        rollups.addBasket(day, cash, 250, 250, 50_000);
+        // Fuera del rango consultado
+        rollups.addBasket(day + 5, cash, 1, 1, 100);
+
+        BasketStats stats = rollups.baskets(FIRST_DAY, FIRST_DAY.plusDays(1));
+        assertEquals(3, stats.getPurchases());
+        // Las compras de más de MAX_BASKET_ITEMS ítems se cuentan con ese tamaño
+        assertEquals((1 + 3 + SalesRollups.MAX_BASKET_ITEMS) / 3.0, stats.getAverageItems(), 1e-9);
+        assertEquals(256 / 3.0, stats.getAverageUnits(), 1e-9);
+        assertEquals(Money.ofMinor(18_000), stats.getAverageTotal());
+        assertEquals(List.of(1, 3, SalesRollups.MAX_BASKET_ITEMS),
+                stats.getSizes().stream().map(size -> size.getItems()).toList());
+    }
+}
@@ -0,0 +1,130 @@
+package com.tecdesoftware.market.persistance;
+
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CompraRepositoryTest {
+
+    private static final String CLIENTE = "CLI-N1";
+    private static final int COMPRAS = 20;
+    private static final int ITEMS = 3;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (clienteCrudRepository.existsById(CLIENTE)) {
+            return;
+        }
+
+        Cliente cliente = new Cliente();
+        cliente.setId(CLIENTE);
+        cliente.setCorreoElectronico("n1@test.com");
+        clienteCrudRepository.save(cliente);
+
+        List<Integer> productIds = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setPrecioVenta(Money.ofMinor(1000));
+            producto.setCantidadStock(1000);
+            producto.setEstado(true);
+            productIds.add(productoCrudRepository.save(producto).getIdProducto());
+        }
+
+        for (int i = 0; i < COMPRAS; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setClientId(CLIENTE);
+            purchase.setDate(LocalDateTime.now());
+            purchase.setPaymentMethod("E");
+            purchase.setState("P");
+            List<PurchaseItem> items = new ArrayList<>();
+            for (Integer productId : productIds) {
+                PurchaseItem item = new PurchaseItem();
+                item.setProductId(productId);
+                item.setQuantity(1);
+                item.setTotal(Money.ofMinor(1000));
+                item.setActive(true);
+                items.add(item);
+            }
+            purchase.setItems(items);
+            purchaseRepository.save(purchase);
+        }
+    }
+
+    @Test
+    void getByClientLoadsPurchasesAndItemsInOneQuery() {
+        statistics.clear();
+
+        List<Purchase> purchases = purchaseRepository.getByClient(CLIENTE).orElseThrow();
+
+        assertEquals(COMPRAS, purchases.size());
+        purchases.forEach(purchase -> assertEquals(ITEMS, purchase.getItems().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllLoadsPurchasesAndItemsInOneQuery() {
+        statistics.clear();
+
+        List<Purchase> purchases = purchaseRepository.getAll();
+
+        // Otras clases de test comparten la base: solo se revisan las compras creadas acá
+        List<Purchase> own = purchases.stream()
+                .filter(purchase -> CLIENTE.equals(purchase.getClientId()))
+                .toList();
+        assertEquals(COMPRAS, own.size());
+        own.forEach(purchase -> assertEquals(ITEMS, purchase.getItems().size()));
+        // Sin N+1: una sola consulta sin importar cuántas compras haya en total
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listingsDoNotMaterializeEntities() {
+        statistics.clear();
+
+        List<Purchase> purchases = purchaseRepository.getByClient(CLIENTE).orElseThrow();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        Purchase purchase = purchases.get(0);
+        assertEquals(CLIENTE, purchase.getClientId());
+        assertEquals("E", purchase.getPaymentMethod());
+        assertEquals(Money.ofMinor(1000), purchase.getItems().get(0).getTotal());
+        assertEquals(1, purchase.getItems().get(0).getQuantity());
+        assertTrue(purchase.getItems().get(0).isActive());
+    }
+}
@@ -0,0 +1,254 @@
+package com.tecdesoftware.market.persistance;
+
+import com.tecdesoftware.market.domain.ClientSummary;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.Purchase;
+import com.tecdesoftware.market.domain.PurchaseItem;
+import com.tecdesoftware.market.domain.TopProduct;
+import com.tecdesoftware.market.domain.repository.ClientSummaryRepository;
+import com.tecdesoftware.market.domain.repository.PurchaseRepository;
+import com.tecdesoftware.market.domain.service.PurchaseService;
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.crud.ResumenClienteCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import com.tecdesoftware.market.persistance.entity.ResumenCliente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Grupos de dos clientes para que la reconstrucción recorra varios
+@SpringBootTest(properties = "market.purchases.client-summaries.rebuild-chunk-size=2")
+class ResumenClienteRepositoryTest {
+
+    private static final int ALL = 50;
+
+    @Autowired
+    private ClientSummaryRepository clientSummaryRepository;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    @Autowired
+    private ResumenClienteCrudRepository resumenClienteCrudRepository;
+
+    @Test
+    void incrementalSummaryMatchesHistoryAndRebuild() {
+        String clientId = createClient("CLI-RES-1");
+        int leche = createProduct(250);
+        int pan = createProduct(400);
+
+        purchaseService.save(purchase(clientId, date(3), Map.of(leche, 2, pan, 1)));
+        purchaseService.save(purchase(clientId, date(5), Map.of(pan, 3)));
+        // Llega después pero es más vieja: la última compra sigue siendo la del día 5
+        purchaseService.save(purchase(clientId, date(1), Map.of(leche, 1)));
+
+        ClientSummary incremental = clientSummaryRepository.getSummary(clientId, ALL, ALL).orElseThrow();
+        assertMatchesHistory(clientId, incremental);
+        assertEquals(Money.ofMinor(250 * 3 + 400 * 4), incremental.getTotalSpent());
+        assertEquals(date(5), incremental.getLastPurchaseDate());
+
+        purchaseService.rebuildClientSummaries();
+
+        ClientSummary rebuilt = clientSummaryRepository.getSummary(clientId, ALL, ALL).orElseThrow();
+        assertMatchesHistory(clientId, rebuilt);
+        assertEquals(incremental.getTotalSpent(), rebuilt.getTotalSpent());
+        assertEquals(incremental.getPurchaseCount(), rebuilt.getPurchaseCount());
+        assertEquals(incremental.getLastPurchaseDate(), rebuilt.getLastPurchaseDate());
+        assertEquals(products(incremental), products(rebuilt));
+    }
+
+    // Un resumen desviado (o faltante) se corrige para todos los clientes, no solo el primer grupo
+    @Test
+    void rebuildFixesEveryChunk() {
+        List<String> clientIds = new ArrayList<>();
+        int producto = createProduct(100);
+        for (int i = 0; i < 5; i++) {
+            String clientId = createClient("CLI-RES-CHUNK-" + i);
+            purchaseService.save(purchase(clientId, date(i + 1), Map.of(producto, i + 1)));
+            clientIds.add(clientId);
+        }
+        ResumenCliente stale = resumenClienteCrudRepository.findById(clientIds.get(4)).orElseThrow();
+        stale.setTotalGastado(Money.ofMinor(1));
+        stale.setCantidadCompras(99);
+        resumenClienteCrudRepository.save(stale);
+        resumenClienteCrudRepository.deleteById(clientIds.get(2));
+
+        purchaseService.rebuildClientSummaries();
+
+        for (String clientId : clientIds) {
+            assertMatchesHistory(clientId, clientSummaryRepository.getSummary(clientId, ALL, ALL).orElseThrow());
+        }
+    }
+
+    // Las líneas repetidas del mismo producto se suman en una sola fila del resumen
+    @Test
+    void mergesRepeatedProductsOfAPurchase() {
+        String clientId = createClient("CLI-RES-2");
+        int producto = createProduct(250);
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(date(1));
+        purchase.setItems(List.of(item(producto, 1, 250), item(producto, 2, 500)));
+
+        clientSummaryRepository.addPurchase(purchase);
+
+        ClientSummary summary = clientSummaryRepository.getSummary(clientId, ALL, ALL).orElseThrow();
+        assertEquals(1, summary.getTopProducts().size());
+        assertEquals(3, summary.getTopProducts().get(0).getQuantity());
+        assertEquals(Money.ofMinor(750), summary.getTopProducts().get(0).getTotal());
+        assertEquals(Money.ofMinor(750), summary.getTotalSpent());
+    }
+
+    @Test
+    void limitsRecentPurchasesAndTopProducts() {
+        String clientId = createClient("CLI-RES-3");
+        int poco = createProduct(100);
+        int mucho = createProduct(100);
+        purchaseService.save(purchase(clientId, date(1), Map.of(poco, 1)));
+        purchaseService.save(purchase(clientId, date(2), Map.of(mucho, 5)));
+        int newest = purchaseService.save(purchase(clientId, date(3), Map.of(poco, 1))).getPurchaseId();
+
+        ClientSummary summary = clientSummaryRepository.getSummary(clientId, 2, 1).orElseThrow();
+
+        assertEquals(3, summary.getPurchaseCount());
+        assertEquals(2, summary.getRecentPurchases().size());
+        assertEquals(newest, summary.getRecentPurchases().get(0).getPurchaseId());
+        assertEquals(date(2), summary.getRecentPurchases().get(1).getDate());
+        assertEquals(1, summary.getTopProducts().size());
+        assertEquals(mucho, summary.getTopProducts().get(0).getProductId());
+    }
+
+    // Dos primeras compras simultáneas: una inserta el resumen y la otra lo suma, sin clave duplicada
+    @Test
+    void concurrentFirstPurchasesBothCount() throws Exception {
+        String clientId = createClient("CLI-RES-4");
+        int producto = createProduct(100);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<CompletableFuture<Purchase>> saves = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                int day = i + 1;
+                saves.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    return purchaseService.save(purchase(clientId, date(day), Map.of(producto, 1)));
+                }, executor));
+            }
+            start.countDown();
+            for (CompletableFuture<Purchase> save : saves) {
+                save.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ClientSummary summary = clientSummaryRepository.getSummary(clientId, ALL, ALL).orElseThrow();
+        assertEquals(2, summary.getPurchaseCount());
+        assertMatchesHistory(clientId, summary);
+    }
+
+    private void assertMatchesHistory(String clientId, ClientSummary summary) {
+        List<Purchase> history = purchaseRepository.getByClient(clientId).orElseThrow();
+        Money total = Money.ZERO;
+        LocalDateTime last = null;
+        Map<Integer, String> byProduct = new TreeMap<>();
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, Money> totals = new TreeMap<>();
+        for (Purchase purchase : history) {
+            if (last == null || purchase.getDate().isAfter(last)) {
+                last = purchase.getDate();
+            }
+            for (PurchaseItem item : purchase.getItems()) {
+                total = total.plus(item.getTotal());
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                totals.merge(item.getProductId(), item.getTotal(), Money::plus);
+            }
+        }
+        quantities.forEach((productId, quantity) -> byProduct.put(productId, quantity + " x " + totals.get(productId)));
+        assertEquals(history.size(), summary.getPurchaseCount());
+        assertEquals(total, summary.getTotalSpent());
+        assertEquals(last, summary.getLastPurchaseDate());
+        assertEquals(byProduct, products(summary));
+    }
+
+    // Producto -> "cantidad x total"
+    private static Map<Integer, String> products(ClientSummary summary) {
+        Map<Integer, String> products = new TreeMap<>();
+        for (TopProduct product : summary.getTopProducts()) {
+            products.put(product.getProductId(), product.getQuantity() + " x " + product.getTotal());
+        }
+        return products;
+    }
+
+    private static LocalDateTime date(int day) {
+        return LocalDateTime.of(2024, 3, day, 10, 0);
+    }
+
+    private String createClient(String id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setCorreoElectronico(id.toLowerCase() + "@test.com");
+        clienteCrudRepository.save(cliente);
+        return id;
+    }
+
+    private int createProduct(long priceMinor) {
+        Producto producto = new Producto();
+        producto.setNombre("Producto resumen");
+        producto.setPrecioVenta(Money.ofMinor(priceMinor));
+        producto.setCantidadStock(1000);
+        producto.setEstado(true);
+        return productoCrudRepository.save(producto).getIdProducto();
+    }
+
+    private static Purchase purchase(String clientId, LocalDateTime date, Map<Integer, Integer> quantities) {
+        List<PurchaseItem> items = new ArrayList<>();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> items.add(item(productId, quantity, 0)));
+
+        Purchase purchase = new Purchase();
+        purchase.setClientId(clientId);
+        purchase.setDate(date);
+        purchase.setPaymentMethod("E");
+        purchase.setState("P");
+        purchase.setItems(items);
+        return purchase;
+    }
+
+    private static PurchaseItem item(int productId, int quantity, long totalMinor) {
+        PurchaseItem item = new PurchaseItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setTotal(Money.ofMinor(totalMinor));
+        item.setActive(true);
+        return item;
+    }
+}
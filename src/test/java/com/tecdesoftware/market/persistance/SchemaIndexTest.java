@@ -0,0 +1,65 @@
+package com.tecdesoftware.market.persistance;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Verifica con EXPLAIN (H2) que las consultas de los repositorios usan los índices de V2__indices_consultas.sql
+@SpringBootTest
+class SchemaIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categorias WHERE descripcion = 'Índices'", Integer.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO categorias (descripcion, estado) VALUES ('Índices', TRUE)");
+        Integer categoria = jdbcTemplate.queryForObject(
+                "SELECT id_categoria FROM categorias WHERE descripcion = 'Índices'", Integer.class);
+        for (int i = 0; i < 1000; i++) {
+            jdbcTemplate.update("INSERT INTO productos (nombre, id_categoria, precio_venta, cantidad_stock, estado) "
+                    + "VALUES (?, ?, 1, ?, ?)", "Índice " + i, categoria, i, i % 10 != 0);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void productsByCategoryUseCategoryNameIndex() {
+        assertPlanUses("SELECT * FROM productos WHERE id_categoria = 1 ORDER BY nombre ASC",
+                "IDX_PRODUCTOS_CATEGORIA_NOMBRE");
+    }
+
+    @Test
+    void scarceProductsUseStateStockIndex() {
+        assertPlanUses("SELECT * FROM productos WHERE cantidad_stock < 5 AND estado = TRUE",
+                "IDX_PRODUCTOS_ESTADO_STOCK");
+    }
+
+    @Test
+    void purchasesByClientUseClientIndex() {
+        assertPlanUses("SELECT * FROM compras WHERE id_cliente = 'CLI001'", "IDX_COMPRAS_CLIENTE_FECHA");
+    }
+
+    @Test
+    void purchaseExportUsesDateIndex() {
+        assertPlanUses("SELECT * FROM compras WHERE fecha >= TIMESTAMP '2025-07-01 00:00:00' "
+                + "AND fecha < TIMESTAMP '2025-08-01 00:00:00' ORDER BY fecha", "IDX_COMPRAS_FECHA");
+    }
+
+    @Test
+    void clientByEmailUsesUniqueIndex() {
+        assertPlanUses("SELECT * FROM clientes WHERE correo_electronico = 'kepler@me.com'", "UQ_CLIENTES_CORREO");
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.toUpperCase().contains(index), () -> "Se esperaba el índice " + index + " en el plan:\n" + plan);
+    }
+}
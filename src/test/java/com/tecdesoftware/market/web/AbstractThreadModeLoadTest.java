@@ -0,0 +1,127 @@
+package com.tecdesoftware.market.web;
+
+import com.tecdesoftware.market.config.JwtUtil;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.persistance.crud.ProductoCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Producto;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Prueba de carga: muchos requests simultáneos contra un endpoint que consulta la base de datos.
+// Se ejecuta con ./gradlew loadTest e imprime p99 y máximo de requests atendidos a la vez en cada modo.
+@Tag("load")
+@Import(AbstractThreadModeLoadTest.ConcurrencyProbe.class)
+abstract class AbstractThreadModeLoadTest {
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS = 10_000;
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductoCrudRepository productoCrudRepository;
+
+    protected abstract String mode();
+
+    @Test
+    void productPagesUnderBurst() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setPrecioVenta(Money.ofMinor(100));
+            producto.setCantidadStock(100);
+            producto.setEstado(true);
+            productoCrudRepository.save(producto);
+        }
+
+        String token = jwtUtil.generateToken("load@test.com");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/market-app/api/products/page?size=100"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+        AtomicInteger errors = new AtomicInteger();
+        maxInFlight.set(0);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies.add(System.nanoTime() - t0);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("[%s] requests=%d errors=%d elapsed=%dms p50=%.1fms p99=%.1fms maxConcurrent=%d%n",
+                mode(), REQUESTS, errors.get(), elapsedMs,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), maxInFlight.get());
+
+        assertEquals(0, errors.get());
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        return sorted.get((int) Math.ceil(p * sorted.size()) - 1) / 1_000_000.0;
+    }
+
+    // Cuenta los requests que el servidor está atendiendo a la vez
+    @TestConfiguration
+    static class ConcurrencyProbe {
+        @Bean
+        Filter concurrencyProbeFilter() {
+            return (request, response, chain) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            };
+        }
+    }
+}
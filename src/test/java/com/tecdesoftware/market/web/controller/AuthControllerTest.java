@@ -0,0 +1,94 @@
+package com.tecdesoftware.market.web.controller;
+
+import com.tecdesoftware.market.persistance.crud.ClienteCrudRepository;
+import com.tecdesoftware.market.persistance.entity.Cliente;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "market.auth.rate-limit.max-per-email=3",
+        "market.auth.rate-limit.window-seconds=60"
+})
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    private static final String CONTRASENA = "secreta";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClienteCrudRepository clienteCrudRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loginReturnsTokens() throws Exception {
+        String correo = createClient("CLI-AUTH-1");
+
+        login(correo, CONTRASENA)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+        login(correo, "incorrecta").andExpect(status().isUnauthorized());
+    }
+
+    // Pasado el límite se responde 429 antes de llegar al pool de BCrypt
+    @Test
+    void throttledLoginReturns429WithoutRunningBcrypt() throws Exception {
+        String correo = createClient("CLI-AUTH-2");
+        for (int i = 0; i < 3; i++) {
+            login(correo, "incorrecta").andExpect(status().isUnauthorized());
+        }
+        long hashes = bcryptCount();
+
+        login(correo, CONTRASENA)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"));
+
+        assertEquals(hashes, bcryptCount());
+    }
+
+    private ResultActions login(String correo, String contrasena) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"correo": "%s", "contrasena": "%s"}
+                                """.formatted(correo, contrasena)))
+                .andReturn();
+        // login devuelve un CompletableFuture: la respuesta se escribe en el despacho asíncrono
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private long bcryptCount() {
+        return meterRegistry.get("auth.password.verify").timer().count();
+    }
+
+    private String createClient(String id) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setCorreoElectronico(id.toLowerCase() + "@test.com");
+        cliente.setContrasena(passwordEncoder.encode(CONTRASENA));
+        clienteCrudRepository.save(cliente);
+        return cliente.getCorreoElectronico();
+    }
+}
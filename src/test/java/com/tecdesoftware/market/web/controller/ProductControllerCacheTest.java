@@ -0,0 +1,171 @@
+package com.tecdesoftware.market.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tecdesoftware.market.config.JwtUtil;
+import com.tecdesoftware.market.domain.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETag / Last-Modified de GET /products y /products/category/{id}: 304 mientras no cambie nada, y
+// respuesta completa después de cada alta, baja, cambio de stock o cambio de categoría
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        token = "Bearer " + jwtUtil.generateToken("catalogo@test.com");
+    }
+
+    @Test
+    void answers304WhileTheCatalogIsUnchanged() throws Exception {
+        MvcResult first = mockMvc.perform(authorized(get("/products")))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(etag);
+        assertNotNull(lastModified);
+
+        mockMvc.perform(authorized(get("/products")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(authorized(get("/products")).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void saveAndDeleteChangeTheCatalogVersion() throws Exception {
+        int categoryId = createCategory("Lácteos");
+        String before = etag("/products");
+
+        int productId = createProduct(categoryId, "Leche Entera");
+        String afterSave = etag("/products");
+        assertChanged("/products", before);
+
+        mockMvc.perform(authorized(delete("/products/{id}", productId))).andExpect(status().isOk());
+        assertChanged("/products", afterSave);
+    }
+
+    @Test
+    void stockChangeInvalidatesOnlyItsCategory() throws Exception {
+        int categoryId = createCategory("Panadería");
+        int otherCategoryId = createCategory("Limpieza");
+        int productId = createProduct(categoryId, "Pan Lactal");
+        createProduct(otherCategoryId, "Jabón Líquido");
+        String category = etag("/products/category/" + categoryId);
+        String otherCategory = etag("/products/category/" + otherCategoryId);
+
+        productService.decreaseStock(productId, 3);
+
+        assertChanged("/products/category/" + categoryId, category);
+        mockMvc.perform(authorized(get("/products/category/{id}", otherCategoryId))
+                        .header(HttpHeaders.IF_NONE_MATCH, otherCategory))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void movingAProductInvalidatesBothCategories() throws Exception {
+        int fromId = createCategory("Bebidas");
+        int toId = createCategory("Almacén");
+        int productId = createProduct(fromId, "Agua Mineral");
+        String from = etag("/products/category/" + fromId);
+        String to = etag("/products/category/" + toId);
+
+        mockMvc.perform(authorized(post("/products"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(productJson(productId, toId, "Agua Mineral")))
+                .andExpect(status().isCreated());
+
+        assertChanged("/products/category/" + fromId, from);
+        assertChanged("/products/category/" + toId, to);
+    }
+
+    private String etag(String path) throws Exception {
+        return mockMvc.perform(authorized(get(path)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    // El ETag anterior ya no sirve: la respuesta vuelve completa y con otro ETag
+    private void assertChanged(String path, String previousEtag) throws Exception {
+        MvcResult result = mockMvc.perform(authorized(get(path)).header(HttpHeaders.IF_NONE_MATCH, previousEtag))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotEquals(previousEtag, etag, "El ETag de " + path + " no cambió");
+    }
+
+    private int createProduct(int categoryId, String name) throws Exception {
+        MvcResult result = mockMvc.perform(authorized(post("/products"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(productJson(0, categoryId, name)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("productId").asInt();
+    }
+
+    private static String productJson(int productId, int categoryId, String name) {
+        return """
+                {
+                    "productId": %d,
+                    "name": "%s",
+                    "categoryId": %d,
+                    "price": 25.50,
+                    "stock": 100,
+                    "active": true
+                }
+                """.formatted(productId, name, categoryId);
+    }
+
+    private int createCategory(String descripcion) {
+        return new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("categorias")
+                .usingColumns("descripcion", "estado")
+                .usingGeneratedKeyColumns("id_categoria")
+                .executeAndReturnKey(Map.of("descripcion", descripcion, "estado", true))
+                .intValue();
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, token);
+    }
+}
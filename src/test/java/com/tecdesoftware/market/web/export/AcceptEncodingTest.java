@@ -0,0 +1,33 @@
+package com.tecdesoftware.market.web.export;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsGzipWithPositiveWeight() {
+        assertTrue(AcceptEncoding.acceptsGzip("gzip"));
+        assertTrue(AcceptEncoding.acceptsGzip("br, GZIP;q=0.5, deflate"));
+        assertTrue(AcceptEncoding.acceptsGzip("x-gzip"));
+        assertTrue(AcceptEncoding.acceptsGzip("*"));
+        assertTrue(AcceptEncoding.acceptsGzip("gzip ; q=1.0"));
+    }
+
+    @Test
+    void rejectsZeroWeightAndOtherCodings() {
+        assertFalse(AcceptEncoding.acceptsGzip(null));
+        assertFalse(AcceptEncoding.acceptsGzip(""));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0.000, identity"));
+        assertFalse(AcceptEncoding.acceptsGzip("br, deflate"));
+        // Contienen "gzip" pero son otras codificaciones
+        assertFalse(AcceptEncoding.acceptsGzip("nogzip, gzipx"));
+        // Nombrada con q=0, el comodín no la habilita
+        assertFalse(AcceptEncoding.acceptsGzip("*, gzip;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("*;q=0"));
+        assertFalse(AcceptEncoding.acceptsGzip("gzip;q=abc"));
+    }
+}
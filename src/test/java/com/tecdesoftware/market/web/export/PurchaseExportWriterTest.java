@@ -0,0 +1,69 @@
+package com.tecdesoftware.market.web.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tecdesoftware.market.domain.Money;
+import com.tecdesoftware.market.domain.dto.PurchaseLine;
+import com.tecdesoftware.market.web.json.MoneyJsonComponent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PurchaseExportWriterTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2025, 7, 21, 10, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule().addSerializer(Money.class, new MoneyJsonComponent.Serializer()));
+
+    @Test
+    void csvQuotesFieldsWithSeparators() throws IOException {
+        List<String> lines = export(PurchaseExportWriter.CSV,
+                line(1, "Sin \"azúcar\", por favor", 10, 2, 500),
+                line(2, null, null, null, 0));
+
+        assertEquals(3, lines.size());
+        assertEquals("1,CLI001,2025-07-21T10:30,E,\"Sin \"\"azúcar\"\", por favor\",P,10,2,5.00,true", lines.get(1));
+        // Compra sin ítems: los campos del ítem quedan vacíos
+        assertEquals("2,CLI001,2025-07-21T10:30,E,,P,,,,", lines.get(2));
+    }
+
+    @Test
+    void ndjsonWritesOnePurchasePerLineWithItsItems() throws IOException {
+        List<String> lines = export(PurchaseExportWriter.NDJSON,
+                line(1, null, 10, 2, 500),
+                line(1, null, 11, 1, 250),
+                line(2, null, 12, 3, 300));
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"purchaseId\":1,"), lines.get(0));
+        assertTrue(lines.get(0).contains("\"productId\":11"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("{\"purchaseId\":2,"), lines.get(1));
+    }
+
+    private List<String> export(String format, PurchaseLine... purchaseLines) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PurchaseExportWriter writer = PurchaseExportWriter.of(format, out, objectMapper)) {
+            for (PurchaseLine line : purchaseLines) {
+                writer.accept(line);
+            }
+        }
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("\n"));
+        return text.lines().toList();
+    }
+
+    private static PurchaseLine line(int purchaseId, String comment, Integer productId, Integer quantity, long totalCents) {
+        return new PurchaseLine(purchaseId, "CLI001", DATE, "E", comment, "P", productId, quantity,
+                productId != null ? Money.ofMinor(totalCents) : null, productId != null ? Boolean.TRUE : null);
+    }
+}